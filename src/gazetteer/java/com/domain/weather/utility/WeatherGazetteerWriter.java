@@ -0,0 +1,173 @@
+package com.domain.weather.utility;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WeatherGazetteerWriter builds the postal code index read by WeatherGazetteer from a CSV file with the columns
+ * postal_code, city, region, latitude, longitude and timezone, after a header line. Fields cannot contain commas.
+ * Every row is checked, so a bad row fails the build rather than a lookup. Run by the gazetteerIndex Gradle task,
+ * it lives in the gazetteer source set and is not part of the application jar. It only uses the index constants
+ * of WeatherGazetteer, which are compiled in, so it runs without Spring.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public final class WeatherGazetteerWriter {
+
+    private WeatherGazetteerWriter() {
+    }
+
+    /**
+     * Writes the index for a CSV file.
+     *
+     * @param args the CSV file and the index file to write
+     * @throws IOException if a file cannot be read or written, or a row is invalid
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: WeatherGazetteerWriter <postal codes csv> <index file>");
+            System.exit(2);
+        }
+        Path index = Paths.get(args[1]).toAbsolutePath();
+        Files.createDirectories(index.getParent());
+        try (BufferedReader csv = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(index))) {
+            int count = write(csv, out);
+            System.out.println("Wrote " + count + " postal codes to " + index);
+        }
+    }
+
+    /**
+     * Writes the index for CSV rows.
+     *
+     * @param csv the CSV rows, starting with the header
+     * @param out where the index is written
+     * @return the number of postal codes written
+     * @throws IOException if the rows cannot be read or the index cannot be written, or a row is invalid
+     */
+    public static int write(BufferedReader csv, OutputStream out) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        // Skips the header
+        csv.readLine();
+        String line;
+        int lineNumber = 1;
+        while ((line = csv.readLine()) != null) {
+            lineNumber++;
+            if (!line.trim().isEmpty()) {
+                rows.add(parse(line, lineNumber, strings));
+            }
+        }
+        rows.sort(Comparator.comparingInt(row -> row.postalCode));
+        for (int i = 1; i < rows.size(); i++) {
+            if (rows.get(i).postalCode == rows.get(i - 1).postalCode) {
+                throw new IOException(String.format("Postal code %05d is listed more than once", rows.get(i).postalCode));
+            }
+        }
+
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Name too long: " + string.substring(0, 40) + "...");
+            }
+            encoded.add(bytes);
+        }
+
+        int stringsOffset = WeatherGazetteer.HEADER_BYTES + rows.size() * WeatherGazetteer.RECORD_BYTES;
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(WeatherGazetteer.MAGIC);
+        data.writeInt(WeatherGazetteer.VERSION);
+        data.writeInt(rows.size());
+        data.writeInt(stringsOffset);
+        for (Row row : rows) {
+            data.writeInt(row.postalCode);
+            data.writeFloat(row.latitude);
+            data.writeFloat(row.longitude);
+            data.writeInt(row.city);
+            data.writeInt(row.region);
+            data.writeInt(row.timezone);
+        }
+        data.writeInt(encoded.size());
+        int offset = stringsOffset + 4 + encoded.size() * 4;
+        for (byte[] bytes : encoded) {
+            data.writeInt(offset);
+            offset += 2 + bytes.length;
+        }
+        for (byte[] bytes : encoded) {
+            data.writeShort(bytes.length);
+            data.write(bytes);
+        }
+        data.flush();
+        return rows.size();
+    }
+
+    private static Row parse(String line, int lineNumber, Map<String, Integer> strings) throws IOException {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 6) {
+            throw new IOException("Line " + lineNumber + ": expected 6 fields, found " + fields.length);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        if (fields[0].length() != 5 || !fields[0].chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IOException("Line " + lineNumber + ": not a ZIP code: " + fields[0]);
+        }
+        int postalCode = Integer.parseInt(fields[0]);
+        try {
+            float latitude = Float.parseFloat(fields[3]);
+            float longitude = Float.parseFloat(fields[4]);
+            if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                throw new IOException("Line " + lineNumber + ": coordinates out of range");
+            }
+            ZoneId.of(fields[5]);
+            return new Row(postalCode, latitude, longitude, id(fields[1], strings), id(fields[2], strings), id(fields[5], strings));
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int id(String string, Map<String, Integer> strings) {
+        return strings.computeIfAbsent(string, key -> strings.size());
+    }
+
+    private static final class Row {
+
+        private final int postalCode;
+
+        private final float latitude;
+
+        private final float longitude;
+
+        private final int city;
+
+        private final int region;
+
+        private final int timezone;
+
+        private Row(int postalCode, float latitude, float longitude, int city, int region, int timezone) {
+            this.postalCode = postalCode;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.city = city;
+            this.region = region;
+            this.timezone = timezone;
+        }
+    }
+}
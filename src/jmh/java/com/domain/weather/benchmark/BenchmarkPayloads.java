@@ -0,0 +1,30 @@
+package com.domain.weather.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the sample payloads shared by the benchmarks.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * @return a realistic weatherstack "current" response body
+     */
+    static String weatherstackCurrent() throws IOException {
+        try (InputStream in = BenchmarkPayloads.class.getResourceAsStream("/weatherstack-current.json")) {
+            if (in == null) {
+                throw new IOException("weatherstack-current.json not found on the benchmark classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+    }
+}
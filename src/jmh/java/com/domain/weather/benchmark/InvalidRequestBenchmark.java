@@ -0,0 +1,100 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.exception.WeatherGlobalException;
+import com.domain.weather.model.WeatherErrorResponse;
+import com.domain.weather.utility.WeatherMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures what an invalid request costs once it is rejected, from the throw to the bytes of the error body, as
+ * under a flood of requests with bad postal codes. The exception is thrown 100 frames down, about as deep as a
+ * controller runs under Tomcat and Spring MVC, and caught at the top, where the error is counted and rendered.
+ * <ul>
+ *     <li>fullStackJackson: a new WeatherException with a stack trace, and a new WeatherErrorResponse serialized by
+ *     Jackson, as before</li>
+ *     <li>cachedJackson: the cached WeatherException, serialized by Jackson</li>
+ *     <li>cachedPrebuilt: the cached WeatherException, rendered by WeatherGlobalException from pre-encoded bytes</li>
+ * </ul>
+ * Run with the gc profiler to see the allocation per operation.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class InvalidRequestBenchmark {
+
+    private static final int STACK_DEPTH = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final WeatherMetrics weatherMetrics = new WeatherMetrics(new SimpleMeterRegistry());
+
+    private final WeatherGlobalException weatherGlobalException = new WeatherGlobalException(weatherMetrics);
+
+    private final Supplier<WeatherException> fullStack = () -> new WeatherException(
+            WeatherException.INVALID_POSTAL_CODE_ERROR, WeatherException.INVALID_POSTAL_CODE_MSG, LocalDateTime.now());
+
+    private final Supplier<WeatherException> cached = () -> WeatherException.cached(
+            WeatherException.INVALID_POSTAL_CODE_ERROR, WeatherException.INVALID_POSTAL_CODE_MSG);
+
+    @Benchmark
+    public byte[] fullStackJackson() throws IOException {
+        try {
+            throwAt(STACK_DEPTH, fullStack);
+            return null;
+        } catch (WeatherException e) {
+            return serialize(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] cachedJackson() throws IOException {
+        try {
+            throwAt(STACK_DEPTH, cached);
+            return null;
+        } catch (WeatherException e) {
+            return serialize(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] cachedPrebuilt() {
+        try {
+            throwAt(STACK_DEPTH, cached);
+            return null;
+        } catch (WeatherException e) {
+            return weatherGlobalException.handleWeatherException(e).getBody();
+        }
+    }
+
+    private byte[] serialize(WeatherException e) throws IOException {
+        weatherMetrics.countException(e.getCode());
+        LocalDateTime timestamp = e.getTimestamp() != null ? e.getTimestamp() : LocalDateTime.now();
+        return objectMapper.writeValueAsBytes(new WeatherErrorResponse(e.getMessage(), e.getCode(), timestamp));
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static void throwAt(int depth, Supplier<WeatherException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwAt(depth - 1, exception);
+    }
+}
@@ -0,0 +1,112 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.service.WeatherUpstreamExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the upstream executor on platform threads against virtual threads when 10,000 clients
+ * arrive at once and every upstream call blocks for the same time.
+ * The platform pool is sized like Tomcat's default connector pool; the virtual mode caps in-flight
+ * calls at the client count. Besides the time to serve everyone, it reports the highest number of
+ * calls that were blocked upstream at the same time (the concurrency ceiling), the p99 and max
+ * latency from arrival to completion, and rejections.
+ * <p>
+ * The virtual mode needs JDK 21 or later; on older JDKs run it with -p threads=platform.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+// One measured shot: JMH sums event counters over iterations, so more would inflate the latencies
+@Measurement(iterations = 1)
+@Fork(1)
+public class UpstreamConcurrencyBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10000"})
+    public int clients;
+
+    @Param({"200"})
+    public int platformThreads;
+
+    @Param({"100"})
+    public long upstreamDelayMs;
+
+    private WeatherUpstreamExecutor executor;
+
+    /**
+     * Results of the last invocation, reported next to the timing.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latency {
+        public long peakInFlight;
+        public long p99Millis;
+        public long maxMillis;
+        public long rejected;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threads);
+        executor = new WeatherUpstreamExecutor(platformThreads, clients, 0, virtual, clients);
+        if (virtual && !executor.isVirtual()) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or later, running " + Runtime.version());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public long serveAllClients(Latency latency) {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        long[] latencies = new long[clients];
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            long arrived = System.nanoTime();
+            calls[i] = executor.submit(() -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(upstreamDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                latencies[client] = System.nanoTime() - arrived;
+                return client;
+            });
+        }
+        long rejected = 0;
+        for (CompletableFuture<?> call : calls) {
+            try {
+                call.join();
+            } catch (RuntimeException e) {
+                rejected++;
+            }
+        }
+
+        Arrays.sort(latencies);
+        latency.peakInFlight = peak.get();
+        latency.p99Millis = TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(clients * 0.99) - 1]);
+        latency.maxMillis = TimeUnit.NANOSECONDS.toMillis(latencies[clients - 1]);
+        latency.rejected = rejected;
+        return rejected;
+    }
+}
@@ -0,0 +1,76 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.utility.WeatherUtility;
+import com.domain.weather.utility.WeatherValidators;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the request validators: compiling the pattern on every call (the old behaviour),
+ * a precompiled pattern, and the character scans in WeatherValidators, plus the public
+ * WeatherUtility.validatePostalCode and validateUser entry points that delegate to them.
+ * Each invocation validates a mix of valid and invalid postal codes and names.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final String US_POSTAL_CODE_FORMAT = "^[0-9]{5}(?:-[0-9]{4})?$";
+
+    private static final String NAME_FORMAT = "^[A-Za-z]+([ '-][A-Za-z]+)*$";
+
+    private final String[] postalCodes = {"12345", "12345-6789", "1234", "12a45", "98101"};
+
+    private final String[] names = {"john doe", "mary-jane o'brien", "123", "john  doe", "Alice"};
+
+    @Benchmark
+    public void compilePatternPerCall(Blackhole blackhole) {
+        for (String postalCode : postalCodes) {
+            blackhole.consume(Pattern.compile(US_POSTAL_CODE_FORMAT).matcher(postalCode).matches());
+        }
+        for (String name : names) {
+            blackhole.consume(Pattern.compile(NAME_FORMAT).matcher(name).matches());
+        }
+    }
+
+    @Benchmark
+    public void precompiledPattern(Blackhole blackhole) {
+        for (String postalCode : postalCodes) {
+            blackhole.consume(WeatherValidators.US_POSTAL_CODE_PATTERN.matcher(postalCode).matches());
+        }
+        for (String name : names) {
+            blackhole.consume(WeatherValidators.NAME_PATTERN.matcher(name).matches());
+        }
+    }
+
+    @Benchmark
+    public void characterScan(Blackhole blackhole) {
+        for (String postalCode : postalCodes) {
+            blackhole.consume(WeatherValidators.isUsPostalCode(postalCode));
+        }
+        for (String name : names) {
+            blackhole.consume(WeatherValidators.isName(name));
+        }
+    }
+
+    @Benchmark
+    public void weatherUtility(Blackhole blackhole) {
+        for (String postalCode : postalCodes) {
+            blackhole.consume(WeatherUtility.validatePostalCode(postalCode));
+        }
+        for (String name : names) {
+            blackhole.consume(WeatherUtility.validateUser(name));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.entity.WeatherEntity;
+import com.domain.weather.model.WeatherResponseDTO;
+import com.domain.weather.model.WeatherSummaryDTO;
+import com.domain.weather.utility.WeatherUtility;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions between the weatherstack response, the weather entity and the history DTOs:
+ * one response to an entity as done on every save, and histories of 1k and 100k entities to DTOs,
+ * entity by entity and as a whole summary, as done when reading or exporting history.
+ * Run with the gc profiler to see bytes allocated per conversion.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherConversionBenchmark {
+
+    private WeatherResponseDTO weatherResponseDTO;
+
+    /**
+     * A history of entities, as read back from the repository.
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+
+        @Param({"1000", "100000"})
+        public int entities;
+
+        private List<WeatherEntity> weather;
+
+        @Setup
+        public void setUp() throws IOException {
+            WeatherResponseDTO weatherResponseDTO = parsePayload();
+            weather = new ArrayList<>(entities);
+            LocalDateTime timestamp = LocalDateTime.of(2024, 12, 26, 12, 0);
+            for (int i = 0; i < entities; i++) {
+                WeatherEntity weatherEntity = WeatherUtility.convertWeatherResponseToWeatherEntity(weatherResponseDTO);
+                weatherEntity.setId((long) i);
+                weatherEntity.setUser("user" + (i % 100));
+                weatherEntity.setPostalCode(String.valueOf(10000 + i % 90000));
+                weatherEntity.setTimestamp(timestamp.minusMinutes(i));
+                weatherEntity.getWeatherData().setTemperature(i % 40 - 10);
+                weather.add(weatherEntity);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        weatherResponseDTO = parsePayload();
+    }
+
+    private static WeatherResponseDTO parsePayload() throws IOException {
+        return WeatherUtility.parseWeatherResponse(
+                new ByteArrayInputStream(BenchmarkPayloads.weatherstackCurrent().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public WeatherEntity convertResponseToEntity() {
+        return WeatherUtility.convertWeatherResponseToWeatherEntity(weatherResponseDTO);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void setWeatherHistoryPerEntity(History history, Blackhole blackhole) {
+        for (WeatherEntity weatherEntity : history.weather) {
+            blackhole.consume(WeatherUtility.setWeatherHistory(weatherEntity));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public WeatherSummaryDTO convertEntitiesToSummary(History history) {
+        return WeatherUtility.convertWeatherEntityToWeather(history.weather);
+    }
+}
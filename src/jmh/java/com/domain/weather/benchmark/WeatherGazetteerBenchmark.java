@@ -0,0 +1,101 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.utility.WeatherGazetteer;
+import com.domain.weather.utility.WeatherGazetteerWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups in the postal code index, over a synthetic index about the size of the full US ZIP code list:
+ * the odd ZIP codes from 00001, with cities, regions and time zones drawn from smaller pools as in real data.
+ * Misses are the even ZIP codes in between.
+ * <ul>
+ *     <li>containsHit and containsMiss: the binary search over the mapped file, as on every weather request</li>
+ *     <li>heapSetContains: the same lookups in a HashSet of the ZIP codes, for comparison; it is what the
+ *     index avoids keeping on the heap</li>
+ * </ul>
+ * Run with the gc profiler to see the allocation per operation.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherGazetteerBenchmark {
+
+    private static final int POSTAL_CODES = 42_000;
+
+    private static final String[] TIMEZONES = {"America/New_York", "America/Chicago", "America/Denver",
+            "America/Los_Angeles", "America/Anchorage", "Pacific/Honolulu"};
+
+    private final String[] hits = new String[1024];
+
+    private final String[] misses = new String[1024];
+
+    private final Set<String> heapSet = new HashSet<>();
+
+    private WeatherGazetteer weatherGazetteer;
+
+    private Path index;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StringBuilder csv = new StringBuilder("postal_code,city,region,latitude,longitude,timezone\n");
+        for (int i = 0; i < POSTAL_CODES; i++) {
+            csv.append(String.format(Locale.ROOT, "%05d,City %d,Region %d,%.4f,%.4f,%s%n", i * 2 + 1, i % 20_000, i % 60,
+                    25 + (i % 2_400) / 100.0, -70 - (i % 5_000) / 100.0, TIMEZONES[i % TIMEZONES.length]));
+        }
+        index = Files.createTempFile("weather-gazetteer-benchmark", ".bin");
+        try (OutputStream out = Files.newOutputStream(index)) {
+            WeatherGazetteerWriter.write(new BufferedReader(new StringReader(csv.toString())), out);
+        }
+        weatherGazetteer = new WeatherGazetteer(new FileSystemResource(index), true);
+
+        for (int i = 0; i < hits.length; i++) {
+            int record = (int) ((long) i * 7_919 % POSTAL_CODES);
+            hits[i] = String.format("%05d", record * 2 + 1);
+            misses[i] = String.format("%05d", record * 2);
+        }
+        for (int i = 0; i < POSTAL_CODES; i++) {
+            heapSet.add(String.format("%05d", i * 2 + 1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(index);
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return weatherGazetteer.contains(hits[next++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return weatherGazetteer.contains(misses[next++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean heapSetContains() {
+        return heapSet.contains(hits[next++ & 1023]);
+    }
+}
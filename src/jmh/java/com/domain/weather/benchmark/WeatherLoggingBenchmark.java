@@ -0,0 +1,104 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.entity.WeatherEntity;
+import com.domain.weather.model.WeatherResponseDTO;
+import com.domain.weather.model.WeatherSummaryDTO;
+import com.domain.weather.utility.WeatherPayloadSampler;
+import com.domain.weather.utility.WeatherUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what logging costs request threads, with four threads logging to a file the way the application does.
+ * <ul>
+ *     <li>synchronousLogLine: one request line through synchronous loggers that flush every event, the cost of the
+ *     previous setup</li>
+ *     <li>asyncLogLine: the same line through the application's asynchronous, garbage-free loggers</li>
+ *     <li>asyncFullPayloadDump: a request line followed by the full 50-entry history page as JSON, as when every
+ *     payload was logged</li>
+ *     <li>asyncSampledPayload: a request line followed by the payload sampler at its default 1% rate</li>
+ * </ul>
+ * Asynchronous forks block instead of dropping events when the ring buffer is full, so the results are the
+ * sustained rate the logging thread can write, not the rate events can be discarded. Run with the gc profiler
+ * to see the allocation per operation. Output goes to weather-logging-benchmark.log in the temp directory.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class WeatherLoggingBenchmark {
+
+    private static final String CONFIGURATION = "-Dlog4j2.configurationFile=log4j2-benchmark.xml";
+
+    private static final String ASYNC = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.async.AsyncLoggerContextSelector";
+
+    private static final String SYNC = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+
+    private static final String BLOCK_WHEN_FULL = "-Dlog4j2.asyncQueueFullPolicy=Default";
+
+    private static final Logger logger = LogManager.getLogger("com.domain.weather.benchmark.WeatherLoggingBenchmark");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final WeatherPayloadSampler sampler = new WeatherPayloadSampler(0.01, 1024);
+
+    private WeatherSummaryDTO page;
+
+    @Setup
+    public void setUp() throws IOException {
+        WeatherResponseDTO weatherResponseDTO = WeatherUtility.parseWeatherResponse(
+                new ByteArrayInputStream(BenchmarkPayloads.weatherstackCurrent().getBytes(StandardCharsets.UTF_8)));
+        List<WeatherSummaryDTO.WeatherHistory> history = new ArrayList<>(51);
+        for (int i = 0; i <= 50; i++) {
+            WeatherEntity weatherEntity = WeatherUtility.convertWeatherResponseToWeatherEntity(weatherResponseDTO);
+            weatherEntity.setId((long) (50 - i));
+            history.add(WeatherUtility.convertWeatherEntityToWeatherHistory(weatherEntity));
+        }
+        page = WeatherUtility.convertWeatherHistoryToWeatherPage(history, 50);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {CONFIGURATION, SYNC, "-Dbenchmark.immediateFlush=true"})
+    public void synchronousLogLine() {
+        logRequest();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {CONFIGURATION, ASYNC, BLOCK_WHEN_FULL})
+    public void asyncLogLine() {
+        logRequest();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {CONFIGURATION, ASYNC, BLOCK_WHEN_FULL})
+    public void asyncFullPayloadDump() throws IOException {
+        logRequest();
+        logger.debug("Retrieved weather history for user {}: {}", "usera", objectMapper.writeValueAsString(page));
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {CONFIGURATION, ASYNC, BLOCK_WHEN_FULL})
+    public void asyncSampledPayload() {
+        logRequest();
+        sampler.debug(logger, "Retrieved weather history for user {}: {}", "usera", page);
+    }
+
+    private static void logRequest() {
+        logger.info("Getting weather for user: {}, postal code: {}", "usera", "10001");
+    }
+}
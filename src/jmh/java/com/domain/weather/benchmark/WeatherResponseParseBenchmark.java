@@ -0,0 +1,80 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.model.WeatherResponseDTO;
+import com.domain.weather.utility.WeatherUtility;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ways of parsing a weatherstack payload: a new ObjectMapper per call, a shared
+ * ObjectReader specialized for WeatherResponseDTO, and the streaming parse straight from
+ * the response stream used by WeatherWebClient.
+ * Run with the gc profiler to see bytes allocated per parse.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherResponseParseBenchmark {
+
+    private static final ObjectReader SHARED_READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(WeatherResponseDTO.class);
+
+    private String payload;
+
+    private byte[] payloadBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = BenchmarkPayloads.weatherstackCurrent();
+        payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WeatherResponseDTO newObjectMapperPerCall() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper.readValue(payload, WeatherResponseDTO.class);
+    }
+
+    @Benchmark
+    public WeatherResponseDTO sharedObjectReader() throws IOException {
+        return SHARED_READER.readValue(payload);
+    }
+
+    @Benchmark
+    public WeatherResponseDTO bufferedStringThenSharedReader() throws IOException {
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(payloadBytes), StandardCharsets.UTF_8))) {
+            String inputLine;
+            while ((inputLine = reader.readLine()) != null) {
+                response.append(inputLine);
+            }
+        }
+        if (response.toString().contains("error")) {
+            throw new IllegalStateException("error payload");
+        }
+        return SHARED_READER.readValue(response.toString());
+    }
+
+    @Benchmark
+    public WeatherResponseDTO streamingParse() throws IOException {
+        return WeatherUtility.parseWeatherResponse(new ByteArrayInputStream(payloadBytes));
+    }
+}
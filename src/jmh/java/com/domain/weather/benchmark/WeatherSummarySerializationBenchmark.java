@@ -0,0 +1,76 @@
+package com.domain.weather.benchmark;
+
+import com.domain.weather.entity.WeatherEntity;
+import com.domain.weather.model.WeatherResponseDTO;
+import com.domain.weather.model.WeatherSummaryDTO;
+import com.domain.weather.utility.WeatherUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of a WeatherSummaryDTO, the body of GET /app/weather/history, at the
+ * default and the maximum page size. The ObjectMapper is configured the way Spring MVC configures its own.
+ * Compares writing a new byte array per response with a writer specialized for the type writing into a
+ * reused buffer, as the message converter does with the response stream.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherSummarySerializationBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter summaryWriter;
+
+    private WeatherSummaryDTO summary;
+
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        summaryWriter = objectMapper.writerFor(WeatherSummaryDTO.class);
+        WeatherResponseDTO weatherResponseDTO = WeatherUtility.parseWeatherResponse(
+                new ByteArrayInputStream(BenchmarkPayloads.weatherstackCurrent().getBytes(StandardCharsets.UTF_8)));
+        List<WeatherSummaryDTO.WeatherHistory> page = new ArrayList<>(pageSize + 1);
+        for (int i = 0; i <= pageSize; i++) {
+            WeatherEntity weatherEntity = WeatherUtility.convertWeatherResponseToWeatherEntity(weatherResponseDTO);
+            weatherEntity.setId((long) (pageSize - i));
+            page.add(WeatherUtility.convertWeatherEntityToWeatherHistory(weatherEntity));
+        }
+        summary = WeatherUtility.convertWeatherHistoryToWeatherPage(page, pageSize);
+        buffer = new ByteArrayOutputStream(objectMapper.writeValueAsBytes(summary).length);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public int typedWriterToReusedBuffer() throws IOException {
+        buffer.reset();
+        summaryWriter.writeValue(buffer, summary);
+        return buffer.size();
+    }
+}
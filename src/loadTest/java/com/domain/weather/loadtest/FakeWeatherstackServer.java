@@ -0,0 +1,139 @@
+package com.domain.weather.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FakeWeatherstackServer stands in for api.weatherstack.com during load tests, so they run fully offline.
+ * It answers GET /current with a realistic "current" response for the queried postal code after a configurable
+ * latency plus uniform jitter, fails a configurable fraction of requests with HTTP 500, and pads the body to a
+ * configurable size.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+final class FakeWeatherstackServer implements AutoCloseable {
+
+    private static final String BODY_PREFIX = "{\"request\":{\"type\":\"Zipcode\",\"query\":\"";
+
+    private static final String BODY_SUFFIX = "\",\"language\":\"en\",\"unit\":\"m\"},"
+            + "\"location\":{\"name\":\"New York\",\"country\":\"United States of America\",\"region\":\"New York\",\"lat\":\"40.714\",\"lon\":\"-74.006\","
+            + "\"timezone_id\":\"America/New_York\",\"localtime\":\"2024-12-26 12:00\",\"localtime_epoch\":1735214400,\"utc_offset\":\"-5.0\"},"
+            + "\"current\":{\"observation_time\":\"05:00 PM\",\"temperature\":2,\"weather_code\":113,"
+            + "\"weather_icons\":[\"https://cdn.worldweatheronline.com/images/wsymbols01_png_64/wsymbol_0001_sunny.png\"],"
+            + "\"weather_descriptions\":[\"Sunny\"],\"wind_speed\":11,\"wind_degree\":292,\"wind_dir\":\"WNW\",\"pressure\":1023,\"precip\":0,"
+            + "\"humidity\":45,\"cloudcover\":0,\"feelslike\":-2,\"uv_index\":1,\"visibility\":16,\"is_day\":\"yes\"}";
+
+    private static final byte[] ERROR_BODY = "{\"message\":\"upstream failure\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final long latencyMs;
+
+    private final long jitterMs;
+
+    private final double errorRate;
+
+    private final String padding;
+
+    private final ExecutorService threads;
+
+    private final HttpServer server;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * @param latencyMs    the base response latency
+     * @param jitterMs     the most extra latency added, uniformly distributed
+     * @param errorRate    the fraction of requests answered with HTTP 500, from 0 to 1
+     * @param payloadBytes the minimum body size; smaller bodies are padded with an extra field
+     */
+    FakeWeatherstackServer(long latencyMs, long jitterMs, double errorRate, int payloadBytes) throws IOException {
+        this.latencyMs = Math.max(0, latencyMs);
+        this.jitterMs = Math.max(0, jitterMs);
+        this.errorRate = errorRate;
+        int baseSize = BODY_PREFIX.length() + "00000".length() + BODY_SUFFIX.length() + "}".length();
+        int paddingSize = payloadBytes - baseSize - ",\"padding\":\"\"".length();
+        this.padding = paddingSize > 0 ? ",\"padding\":\"" + "x".repeat(paddingSize) + "\"" : "";
+        AtomicInteger threadCount = new AtomicInteger();
+        this.threads = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-weatherstack-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(threads);
+        this.server.createContext("/current", this::handle);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body;
+        int status;
+        if (random.nextDouble() < errorRate) {
+            errors.increment();
+            status = 500;
+            body = ERROR_BODY;
+        } else {
+            status = 200;
+            body = (BODY_PREFIX + query(exchange) + BODY_SUFFIX + padding + "}").getBytes(StandardCharsets.UTF_8);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static String query(HttpExchange exchange) {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                if (parameter.startsWith("query=")) {
+                    return URLDecoder.decode(parameter.substring("query=".length()), StandardCharsets.UTF_8).replace("\"", "");
+                }
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        threads.shutdownNow();
+    }
+}
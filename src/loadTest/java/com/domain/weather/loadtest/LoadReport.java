@@ -0,0 +1,323 @@
+package com.domain.weather.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadReport holds the results of a load test run: per-endpoint throughput, latency percentiles and failures,
+ * the calls that reached the weatherstack stand-in, and heap and GC activity while measuring. It prints them
+ * and writes them as JSON, and checks them against the configured gates.
+ * <p>
+ * The load generator runs in the same JVM as the application, so heap and GC figures include its own
+ * (small) share.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final WeatherLoadTest.LoadTestSettings settings;
+
+    private final long elapsedNanos;
+
+    private final long dropped;
+
+    private final List<Endpoint> endpoints;
+
+    private final long upstreamRequests;
+
+    private final long upstreamErrors;
+
+    private final JvmSnapshot jvmBefore;
+
+    private final JvmSnapshot jvmAfter;
+
+    private final List<String> violations = new ArrayList<>();
+
+    LoadReport(WeatherLoadTest.LoadTestSettings settings, long elapsedNanos, long dropped, Endpoint saves, Endpoint reads,
+               long upstreamRequests, long upstreamErrors, JvmSnapshot jvmBefore, JvmSnapshot jvmAfter) {
+        this.settings = settings;
+        this.elapsedNanos = elapsedNanos;
+        this.dropped = dropped;
+        this.endpoints = Arrays.asList(saves, reads);
+        this.upstreamRequests = upstreamRequests;
+        this.upstreamErrors = upstreamErrors;
+        this.jvmBefore = jvmBefore;
+        this.jvmAfter = jvmAfter;
+        for (Endpoint endpoint : endpoints) {
+            endpoint.snapshot();
+        }
+        checkGates();
+    }
+
+    List<String> getViolations() {
+        return violations;
+    }
+
+    private void checkGates() {
+        long requests = 0;
+        long errors = 0;
+        for (Endpoint endpoint : endpoints) {
+            requests += endpoint.requests;
+            errors += endpoint.errors;
+            double p99 = endpoint.percentileMillis(99);
+            if (settings.gateMaxP99Ms > 0 && p99 > settings.gateMaxP99Ms) {
+                violations.add(String.format("%s p99 %.1f ms is above %.1f ms", endpoint.name, p99, settings.gateMaxP99Ms));
+            }
+        }
+        double errorRate = requests == 0 ? 0 : (double) errors / requests;
+        if (settings.gateMaxErrorRate >= 0 && errorRate > settings.gateMaxErrorRate) {
+            violations.add(String.format("error rate %.4f is above %.4f", errorRate, settings.gateMaxErrorRate));
+        }
+        double throughputRatio = achievedRps() / settings.rps;
+        if (settings.gateMinThroughputRatio > 0 && throughputRatio < settings.gateMinThroughputRatio) {
+            violations.add(String.format("throughput %.1f requests/s is below %.0f%% of the %d requests/s target",
+                    achievedRps(), settings.gateMinThroughputRatio * 100, settings.rps));
+        }
+    }
+
+    private double elapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    private double achievedRps() {
+        long completed = 0;
+        for (Endpoint endpoint : endpoints) {
+            completed += endpoint.requests - endpoint.errors;
+        }
+        return completed / elapsedSeconds();
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nLoad test: %d requests/s target for %.1f s, %.0f%% writes%n", settings.rps, elapsedSeconds(), settings.writeRatio * 100);
+        out.printf("Achieved %.1f successful requests/s, %d not sent because %d requests were already in flight%n",
+                achievedRps(), dropped, settings.maxInFlight);
+        for (Endpoint endpoint : endpoints) {
+            out.printf("%n%-20s %8d requests %8.1f/s %6d errors%n", endpoint.name, endpoint.requests,
+                    endpoint.requests / elapsedSeconds(), endpoint.errors);
+            StringBuilder latencies = new StringBuilder("  latency ms:");
+            for (double percentile : PERCENTILES) {
+                latencies.append(String.format(" p%s=%.1f", formatPercentile(percentile), endpoint.percentileMillis(percentile)));
+            }
+            latencies.append(String.format(" max=%.1f", endpoint.histogram.getMaxValue() / 1e6));
+            out.println(latencies);
+            if (!endpoint.failures.isEmpty()) {
+                out.println("  failures: " + endpoint.failureCounts());
+            }
+        }
+        out.printf("%nWeatherstack stand-in: %d requests, %d errors%n", upstreamRequests, upstreamErrors);
+        out.printf("Heap: %.1f MB used at start, %.1f MB at end, %.1f MB peak, %.1f MB max%n",
+                mb(jvmBefore.heapUsed), mb(jvmAfter.heapUsed), mb(jvmAfter.heapPeak), mb(jvmAfter.heapMax));
+        for (Map.Entry<String, long[]> gc : gcDeltas().entrySet()) {
+            out.printf("GC %s: %d collections, %d ms%n", gc.getKey(), gc.getValue()[0], gc.getValue()[1]);
+        }
+        if (violations.isEmpty()) {
+            out.println("\nAll gates passed");
+        } else {
+            out.println("\nGates missed:");
+            violations.forEach(violation -> out.println("  " + violation));
+        }
+    }
+
+    void writeJson(Path file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("targetRps", settings.rps);
+        config.put("durationSeconds", settings.durationSeconds);
+        config.put("warmupSeconds", settings.warmupSeconds);
+        config.put("writeRatio", settings.writeRatio);
+        config.put("users", settings.users);
+        config.put("postalCodes", settings.postalCodes);
+        config.put("upstreamLatencyMs", settings.upstreamLatencyMs);
+        config.put("upstreamJitterMs", settings.upstreamJitterMs);
+        config.put("upstreamErrorRate", settings.upstreamErrorRate);
+        config.put("upstreamPayloadBytes", settings.upstreamPayloadBytes);
+        report.put("config", config);
+        report.put("elapsedSeconds", elapsedSeconds());
+        report.put("achievedRps", achievedRps());
+        report.put("dropped", dropped);
+
+        Map<String, Object> endpointResults = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", endpoint.requests);
+            result.put("errors", endpoint.errors);
+            result.put("throughputRps", endpoint.requests / elapsedSeconds());
+            Map<String, Object> latency = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + formatPercentile(percentile), endpoint.percentileMillis(percentile));
+            }
+            latency.put("max", endpoint.histogram.getMaxValue() / 1e6);
+            latency.put("mean", endpoint.histogram.getMean() / 1e6);
+            result.put("latencyMs", latency);
+            result.put("failures", endpoint.failureCounts());
+            endpointResults.put(endpoint.name, result);
+        }
+        report.put("endpoints", endpointResults);
+
+        Map<String, Object> upstream = new LinkedHashMap<>();
+        upstream.put("requests", upstreamRequests);
+        upstream.put("errors", upstreamErrors);
+        report.put("upstream", upstream);
+
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("heapUsedStartMb", mb(jvmBefore.heapUsed));
+        jvm.put("heapUsedEndMb", mb(jvmAfter.heapUsed));
+        jvm.put("heapPeakMb", mb(jvmAfter.heapPeak));
+        jvm.put("heapMaxMb", mb(jvmAfter.heapMax));
+        Map<String, Object> gcs = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> gc : gcDeltas().entrySet()) {
+            Map<String, Object> collector = new LinkedHashMap<>();
+            collector.put("collections", gc.getValue()[0]);
+            collector.put("timeMs", gc.getValue()[1]);
+            gcs.put(gc.getKey(), collector);
+        }
+        jvm.put("gc", gcs);
+        report.put("jvm", jvm);
+        report.put("gatesPassed", violations.isEmpty());
+        report.put("violations", violations);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private Map<String, long[]> gcDeltas() {
+        Map<String, long[]> deltas = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> gc : jvmAfter.gc.entrySet()) {
+            long[] before = jvmBefore.gc.getOrDefault(gc.getKey(), new long[2]);
+            deltas.put(gc.getKey(), new long[]{gc.getValue()[0] - before[0], gc.getValue()[1] - before[1]});
+        }
+        return deltas;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    /**
+     * Latencies and failures of one endpoint. Latencies are recorded in nanoseconds into an HdrHistogram
+     * recorder, which is safe to record into from the HTTP client's threads.
+     */
+    static final class Endpoint {
+
+        private final String name;
+
+        private final Recorder recorder = new Recorder(TimeUnit.MINUTES.toNanos(5), 3);
+
+        private final LongAdder requestCount = new LongAdder();
+
+        private final LongAdder errorCount = new LongAdder();
+
+        private final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        private Histogram histogram;
+
+        private long requests;
+
+        private long errors;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        void record(long scheduledNanos, long completedNanos, int statusCode, Throwable error) {
+            recorder.recordValue(Math.min(Math.max(0, completedNanos - scheduledNanos), TimeUnit.MINUTES.toNanos(5)));
+            requestCount.increment();
+            if (error != null || statusCode < 200 || statusCode >= 300) {
+                errorCount.increment();
+                String failure = error != null ? error.getClass().getSimpleName() : "HTTP " + statusCode;
+                failures.computeIfAbsent(failure, key -> new LongAdder()).increment();
+            }
+        }
+
+        void reset() {
+            recorder.reset();
+            requestCount.reset();
+            errorCount.reset();
+            failures.clear();
+        }
+
+        private void snapshot() {
+            histogram = recorder.getIntervalHistogram();
+            requests = requestCount.sum();
+            errors = errorCount.sum();
+        }
+
+        private double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        private Map<String, Long> failureCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            failures.forEach((failure, count) -> counts.put(failure, count.sum()));
+            return counts;
+        }
+    }
+
+    /**
+     * Heap use and cumulative GC counts and times at one point in the run.
+     */
+    static final class JvmSnapshot {
+
+        private long heapUsed;
+
+        private long heapPeak;
+
+        private long heapMax;
+
+        private final Map<String, long[]> gc = new LinkedHashMap<>();
+
+        /**
+         * @param resetPeak whether to start tracking the peak heap use from now
+         */
+        static JvmSnapshot take(boolean resetPeak) {
+            JvmSnapshot snapshot = new JvmSnapshot();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() != MemoryType.HEAP) {
+                    continue;
+                }
+                if (resetPeak) {
+                    pool.resetPeakUsage();
+                }
+                snapshot.heapPeak += pool.getPeakUsage().getUsed();
+            }
+            snapshot.heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            snapshot.heapMax = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                snapshot.gc.put(collector.getName(), new long[]{collector.getCollectionCount(), collector.getCollectionTime()});
+            }
+            return snapshot;
+        }
+    }
+}
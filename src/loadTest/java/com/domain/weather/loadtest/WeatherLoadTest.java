@@ -0,0 +1,237 @@
+package com.domain.weather.loadtest;
+
+import com.domain.weather.WeatherApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WeatherLoadTest reproduces production traffic offline. It boots the application against a
+ * {@link FakeWeatherstackServer}, drives a mix of POST /app/weather and GET /app/history requests at a target
+ * rate, and reports throughput, latency percentiles, heap and GC activity as text and as a JSON file.
+ * <p>
+ * Requests are sent open-loop: each one is scheduled at a fixed interval whether or not earlier ones have
+ * finished, and its latency is measured from the time it was scheduled. A slow server therefore shows up as
+ * higher latency instead of silently lowering the offered load. A warm-up phase runs first and is not counted.
+ * <p>
+ * Settings are read from load.* system properties (see {@link LoadTestSettings}); application settings can be
+ * overridden with system properties as usual. When a gate is set and missed, the run exits with status 1.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public final class WeatherLoadTest {
+
+    private WeatherLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        boolean passed;
+        try (FakeWeatherstackServer upstream = new FakeWeatherstackServer(settings.upstreamLatencyMs, settings.upstreamJitterMs,
+                settings.upstreamErrorRate, settings.upstreamPayloadBytes)) {
+            upstream.start();
+            ConfigurableApplicationContext application = startApplication(upstream);
+            try {
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                LoadReport report = run(settings, "http://127.0.0.1:" + port, upstream);
+                report.print(System.out);
+                Path reportFile = Paths.get(settings.reportFile);
+                report.writeJson(reportFile);
+                System.out.println("Report written to " + reportFile.toAbsolutePath());
+                passed = report.getViolations().isEmpty();
+            } finally {
+                application.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext startApplication(FakeWeatherstackServer upstream) {
+        // System properties win over application.properties; only the upstream URL is forced
+        System.setProperty("weather.client.base-url", upstream.getBaseUrl());
+        setIfAbsent("apiKey", "load-test");
+        setIfAbsent("server.port", "0");
+        setIfAbsent("spring.devtools.restart.enabled", "false");
+        setIfAbsent("logging.level.root", "WARN");
+        // The stand-in has no quota to protect, and the limiter would cap the offered load
+        setIfAbsent("weather.ratelimit.enabled", "false");
+        return new SpringApplicationBuilder(WeatherApplication.class).run();
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static LoadReport run(LoadTestSettings settings, String baseUrl, FakeWeatherstackServer upstream) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LoadReport.Endpoint saves = new LoadReport.Endpoint("POST /app/weather");
+        LoadReport.Endpoint reads = new LoadReport.Endpoint("GET /app/history");
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder dropped = new LongAdder();
+        Random random = new Random(settings.seed);
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, settings.rps);
+
+        System.out.printf("Warming up for %d s at %d requests/s%n", settings.warmupSeconds, settings.rps);
+        drive(settings, client, baseUrl, saves, reads, inFlight, dropped, random, interval, settings.warmupSeconds);
+        awaitInFlight(inFlight);
+        saves.reset();
+        reads.reset();
+        dropped.reset();
+
+        System.out.printf("Measuring for %d s at %d requests/s%n", settings.durationSeconds, settings.rps);
+        LoadReport.JvmSnapshot jvmBefore = LoadReport.JvmSnapshot.take(true);
+        long upstreamRequestsBefore = upstream.getRequests();
+        long upstreamErrorsBefore = upstream.getErrors();
+        long start = System.nanoTime();
+        drive(settings, client, baseUrl, saves, reads, inFlight, dropped, random, interval, settings.durationSeconds);
+        awaitInFlight(inFlight);
+        long elapsed = System.nanoTime() - start;
+        LoadReport.JvmSnapshot jvmAfter = LoadReport.JvmSnapshot.take(false);
+
+        return new LoadReport(settings, elapsed, dropped.sum(), saves, reads,
+                upstream.getRequests() - upstreamRequestsBefore, upstream.getErrors() - upstreamErrorsBefore, jvmBefore, jvmAfter);
+    }
+
+    private static void drive(LoadTestSettings settings, HttpClient client, String baseUrl, LoadReport.Endpoint saves,
+                              LoadReport.Endpoint reads, AtomicInteger inFlight, LongAdder dropped, Random random,
+                              long interval, int seconds) {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * interval;
+            if (scheduled >= end) {
+                return;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String user = userName(random.nextInt(settings.users));
+            String postalCode = String.valueOf(10000 + random.nextInt(settings.postalCodes));
+            boolean save = random.nextDouble() < settings.writeRatio;
+            if (inFlight.get() >= settings.maxInFlight) {
+                dropped.increment();
+                continue;
+            }
+            HttpRequest request = save ? saveRequest(baseUrl, user, postalCode) : historyRequest(baseUrl, user, postalCode);
+            LoadReport.Endpoint endpoint = save ? saves : reads;
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                endpoint.record(scheduled, System.nanoTime(), response == null ? -1 : response.statusCode(), error);
+                inFlight.decrementAndGet();
+            });
+        }
+    }
+
+    private static void awaitInFlight(AtomicInteger inFlight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static HttpRequest saveRequest(String baseUrl, String user, String postalCode) {
+        String body = "{\"user\":\"" + user + "\",\"postalCode\":\"" + postalCode + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/app/weather"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest historyRequest(String baseUrl, String user, String postalCode) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/app/history?user=" + URLEncoder.encode(user, StandardCharsets.UTF_8)
+                        + "&postalCode=" + postalCode))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    /**
+     * @return a name that passes user validation, which only allows letters: usera, userb, ..., userba, ...
+     */
+    static String userName(int index) {
+        StringBuilder suffix = new StringBuilder();
+        int remaining = index;
+        do {
+            suffix.append((char) ('a' + remaining % 26));
+            remaining /= 26;
+        } while (remaining > 0);
+        return "user" + suffix.reverse();
+    }
+
+    /**
+     * Reads the run settings from load.* system properties.
+     */
+    static final class LoadTestSettings {
+
+        int rps;
+        int durationSeconds;
+        int warmupSeconds;
+        double writeRatio;
+        int users;
+        int postalCodes;
+        int maxInFlight;
+        long seed;
+        long upstreamLatencyMs;
+        long upstreamJitterMs;
+        double upstreamErrorRate;
+        int upstreamPayloadBytes;
+        String reportFile;
+        double gateMaxP99Ms;
+        double gateMaxErrorRate;
+        double gateMinThroughputRatio;
+
+        static LoadTestSettings fromSystemProperties() {
+            LoadTestSettings settings = new LoadTestSettings();
+            settings.rps = Integer.getInteger("load.rps", 200);
+            settings.durationSeconds = Integer.getInteger("load.duration-seconds", 60);
+            settings.warmupSeconds = Integer.getInteger("load.warmup-seconds", 15);
+            settings.writeRatio = doubleProperty("load.write-ratio", 0.2);
+            settings.users = Math.max(1, Integer.getInteger("load.users", 100));
+            settings.postalCodes = Math.max(1, Math.min(90000, Integer.getInteger("load.postal-codes", 1000)));
+            settings.maxInFlight = Integer.getInteger("load.max-in-flight", 2000);
+            settings.seed = Long.getLong("load.seed", 42L);
+            settings.upstreamLatencyMs = Long.getLong("load.upstream.latency-ms", 150L);
+            settings.upstreamJitterMs = Long.getLong("load.upstream.jitter-ms", 50L);
+            settings.upstreamErrorRate = doubleProperty("load.upstream.error-rate", 0.01);
+            settings.upstreamPayloadBytes = Integer.getInteger("load.upstream.payload-bytes", 1200);
+            settings.reportFile = System.getProperty("load.report", "build/reports/loadtest/load-test.json");
+            settings.gateMaxP99Ms = doubleProperty("load.gate.max-p99-ms", 0);
+            settings.gateMaxErrorRate = doubleProperty("load.gate.max-error-rate", -1);
+            settings.gateMinThroughputRatio = doubleProperty("load.gate.min-throughput-ratio", 0);
+            if (settings.rps <= 0 || settings.durationSeconds <= 0) {
+                throw new IllegalArgumentException("load.rps and load.duration-seconds must be positive");
+            }
+            return settings;
+        }
+
+        private static double doubleProperty(String key, double defaultValue) {
+            String value = System.getProperty(key);
+            return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
+        }
+    }
+}
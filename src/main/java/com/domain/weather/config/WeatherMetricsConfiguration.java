@@ -0,0 +1,45 @@
+package com.domain.weather.config;
+
+import com.domain.weather.jpa.WeatherRepositoryMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * WeatherMetricsConfiguration adds a {@link WeatherRepositoryMetricsInterceptor} to every Spring Data
+ * repository, so the rows each repository method returns are recorded next to the latency Spring Boot
+ * already times per method.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Configuration
+public class WeatherMetricsConfiguration {
+
+    /**
+     * Static, and resolving the registry lazily, so that post-processing repositories does not create the
+     * meter registry before its own post-processors are in place.
+     *
+     * @param meterRegistry the meter registry, looked up on the first repository call
+     * @return the bean post-processor
+     */
+    @Bean
+    public static BeanPostProcessor weatherRepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                    proxyFactory.addAdvice(new WeatherRepositoryMetricsInterceptor(
+                                            repositoryInformation.getRepositoryInterface().getSimpleName(), meterRegistry::getIfAvailable))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.domain.weather.config;
+
+import com.domain.weather.utility.VirtualThreads;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * WeatherThreadingConfiguration switches Tomcat request handling to virtual threads when
+ * weather.threads.virtual is set and the JDK supports them (21 or later).
+ * Each request then gets its own virtual thread instead of one from the fixed connector pool,
+ * so requests blocked on the database or the Weather API no longer limit how many can be served.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Configuration
+@ConditionalOnProperty(name = "weather.threads.virtual", havingValue = "true")
+public class WeatherThreadingConfiguration {
+
+    private static final Logger logger = LogManager.getLogger(WeatherThreadingConfiguration.class);
+
+    /**
+     * Replaces the connector's thread pool with a virtual thread per request.
+     *
+     * @return the Tomcat protocol handler customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (!VirtualThreads.isSupported()) {
+                logger.warn("weather.threads.virtual is set but {} has no virtual threads, keeping the Tomcat thread pool", Runtime.version());
+                return;
+            }
+            protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-handler-"));
+            logger.info("Tomcat requests are handled on virtual threads");
+        };
+    }
+}
@@ -1,9 +1,11 @@
 package com.domain.weather.controller;
 
 import com.domain.weather.exception.WeatherException;
+import com.domain.weather.model.WeatherBulkResponseDTO;
 import com.domain.weather.model.WeatherRequestDTO;
 import com.domain.weather.model.WeatherSummaryDTO;
 import com.domain.weather.service.WeatherService;
+import com.domain.weather.utility.WeatherPayloadSampler;
 import com.domain.weather.utility.WeatherUtility;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,17 +13,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 import javax.validation.Valid;
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * WeatherController is a REST controller responsible for handling weather-related API requests.
  * It uses the WeatherService to retrieve weather details for a given postal code.
+ * Requests are logged by user and postal code; payloads are only logged for a sample of requests.
  *
  * @author Puja Chaudhury
  * @version 1.0
@@ -38,12 +45,17 @@ public class WeatherController {
     @Autowired
     private WeatherService weatherService;
 
+    @Autowired
+    private WeatherPayloadSampler weatherPayloadSampler;
+
     /**
      * Saves weather details for a given postal code.
+     * The request is validated on the servlet thread; the upstream call and the save complete
+     * asynchronously, so the servlet thread is released while the Weather API responds.
      *
      * @param weatherRequestDTO the weather request DTO
-     * @return the weather summary DTO
-     * @throws WeatherException if there is an error with the request or retrieving the weather data
+     * @return the weather summary DTO, once saved
+     * @throws WeatherException if the request is invalid
      */
     @PostMapping("/weather")
     @Operation(
@@ -54,62 +66,96 @@ public class WeatherController {
                     @ApiResponse(responseCode = "400", description = "Invalid Request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class))),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class)))
             })
-    public ResponseEntity<Object> saveWeather(@Valid @RequestBody WeatherRequestDTO weatherRequestDTO) throws WeatherException {
-        logger.debug("Processing weather save request: {}", weatherRequestDTO);
-
+    public CompletableFuture<ResponseEntity<Object>> saveWeather(@Valid @RequestBody WeatherRequestDTO weatherRequestDTO) throws WeatherException {
         if (!WeatherUtility.validateWeather(weatherRequestDTO)) {
-            logger.warn("Invalid weatherRequestDTO: {}", weatherRequestDTO);
-            throw new WeatherException(
-                    WeatherException.INVALID_REQUEST_ERROR,
-                    WeatherException.INVALID_REQUEST_MSG,
-                    LocalDateTime.now()
-            );
+            logger.warn("Invalid weather save request for user: {}, postal code: {}",
+                    weatherRequestDTO == null ? null : weatherRequestDTO.getUser(), weatherRequestDTO == null ? null : weatherRequestDTO.getPostalCode());
+            throw WeatherException.cached(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_REQUEST_MSG);
         }
 
+        return weatherService.saveWeatherAsync(weatherRequestDTO).handle((savedWeather, error) -> {
+            if (error == null) {
+                logger.debug("Saved weather for user: {}, postal code: {}", weatherRequestDTO.getUser(), weatherRequestDTO.getPostalCode());
+                weatherPayloadSampler.debug(logger, "Saved weather for postal code {}: {}", weatherRequestDTO.getPostalCode(), savedWeather);
+                return ResponseEntity.ok(savedWeather);
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof WeatherException) {
+                WeatherException weatherException = (WeatherException) cause;
+                logger.warn("Could not save weather for user: {}, postal code: {}: {} {}", weatherRequestDTO.getUser(),
+                        weatherRequestDTO.getPostalCode(), weatherException.getCode(), weatherException.getMessage());
+                throw weatherException;
+            }
+            logger.error("Unexpected error saving weather for user: {}, postal code: {}", weatherRequestDTO.getUser(), weatherRequestDTO.getPostalCode(), cause);
+            throw WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
+        });
+    }
+
+    /**
+     * Saves weather details for many user and postal code pairs in one call.
+     * Items are validated, fetched and saved independently; each gets its own result or error.
+     *
+     * @param weatherRequestDTOs the weather request DTOs
+     * @return the bulk response DTO, with one result per request in request order
+     * @throws WeatherException if the list is empty or too long
+     */
+    @PostMapping("/weather/bulk")
+    @Operation(
+            summary = "Save Weather In Bulk",
+            description = "Saves weather details for a list of user and postal code pairs. Each postal code is fetched once; results and errors are reported per item.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherBulkResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid Request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class)))
+            })
+    public ResponseEntity<Object> saveWeatherBulk(@RequestBody List<WeatherRequestDTO> weatherRequestDTOs) throws WeatherException {
+        logger.debug("Processing bulk weather save request with {} items", weatherRequestDTOs == null ? 0 : weatherRequestDTOs.size());
+
         try {
-            WeatherSummaryDTO.WeatherHistory savedWeather = weatherService.saveWeather(weatherRequestDTO);
-            logger.info("Successfully saved weather data: {}", savedWeather);
-            return ResponseEntity.ok(savedWeather);
+            WeatherBulkResponseDTO bulkResponse = weatherService.saveWeatherBulk(weatherRequestDTOs);
+            logger.info("Bulk weather save finished: {} saved, {} failed", bulkResponse.getSaved(), bulkResponse.getFailed());
+            return ResponseEntity.ok(bulkResponse);
 
         } catch (WeatherException e) {
-            logger.error("Error saving weather data for request: {}", weatherRequestDTO, e);
+            logger.warn("Could not save bulk weather data: {} {}", e.getCode(), e.getMessage());
             throw e;
         } catch (Exception e) {
-            logger.error("Unexpected error saving weather data: {}", weatherRequestDTO, e);
-            throw new WeatherException(
-                    WeatherException.INTERNAL_SERVER_ERROR,
-                    WeatherException.INTERNAL_SERVER_ERROR_MSG,
-                    LocalDateTime.now()
-            );
+            logger.error("Unexpected error saving bulk weather data", e);
+            throw WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
         }
     }
 
     /**
-     * Retrieves weather details for a given postal code.
+     * Retrieves weather details for a given postal code, one page at a time, newest first.
      *
+     * @param user the user
      * @param postalCode the postal code
+     * @param cursor the next cursor from a previous page, if any
+     * @param limit the page size, if not the default
      * @return the weather summary DTO
      * @throws WeatherException if there is an error with the request or retrieving the weather data
      */
     @GetMapping("/history")
     @Operation(
             summary = "Get Weather History",
-            description = "Returns weather history details for a given user or/and postal code",
+            description = "Returns weather history details for a given user or/and postal code, newest first. Pass the returned nextCursor to fetch the next page.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherSummaryDTO.class))),
                     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class))),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class)))
             })
     public ResponseEntity<Object> getWeather(@RequestParam(name = "user", required = false) String user,
-                                             @RequestParam(name = "postalCode", required = false) String postalCode) throws WeatherException {
+                                             @RequestParam(name = "postalCode", required = false) String postalCode,
+                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                             @RequestParam(name = "limit", required = false) Integer limit) throws WeatherException {
 
         logger.debug("Getting weather for user: {}, postal code: {}", user, postalCode);
 
         try {
             if (WeatherUtility.isValidRequest(user, postalCode)) {
-                logger.debug("Retrieving weather data for user: {}, postal code: {}", user, postalCode);
-                WeatherSummaryDTO weatherSummaryDTO = weatherService.getWeather(user, postalCode);
-                logger.debug("Retrieved weather data: {}", weatherSummaryDTO);
+                WeatherSummaryDTO weatherSummaryDTO = weatherService.getWeather(user, postalCode, cursor, limit);
+                weatherPayloadSampler.debug(logger, "Retrieved weather history for user {}: {}", user, weatherSummaryDTO);
                 return ResponseEntity.ok(weatherSummaryDTO);
             }
 
@@ -118,8 +164,51 @@ public class WeatherController {
             throw exception;
 
         } catch (WeatherException e) {
-            logger.error("Error retrieving weather for user: {}, postal code: {}", user, postalCode, e);
+            logger.warn("Could not retrieve weather for user: {}, postal code: {}: {} {}", user, postalCode, e.getCode(), e.getMessage());
             throw e;
         }
     }
+
+    /**
+     * Exports all weather history for a given user and/or postal code as newline-delimited JSON,
+     * written to the client while the rows are still being read.
+     *
+     * @param user the user
+     * @param postalCode the postal code
+     * @return the streaming response body
+     * @throws WeatherException if the request is invalid
+     */
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Export Weather History",
+            description = "Streams all weather history for a given user or/and postal code, newest first, one JSON object per line. Selected with Accept: application/x-ndjson or format=ndjson.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = WeatherSummaryDTO.WeatherHistory.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = WeatherException.class)))
+            })
+    public ResponseEntity<StreamingResponseBody> exportWeather(@RequestParam(name = "user", required = false) String user,
+                                                               @RequestParam(name = "postalCode", required = false) String postalCode) throws WeatherException {
+
+        logger.debug("Exporting weather for user: {}, postal code: {}", user, postalCode);
+
+        if (!WeatherUtility.isValidRequest(user, postalCode)) {
+            WeatherException exception = WeatherUtility.createInvalidRequestException(user, postalCode);
+            logger.warn("Could not export weather for user: {}, postal code: {}: {} {}", user, postalCode, exception.getCode(), exception.getMessage());
+            throw exception;
+        }
+
+        StreamingResponseBody body = out -> weatherService.exportWeather(user, postalCode, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Same as {@link #exportWeather(String, String)}, for clients that cannot set the Accept header.
+     */
+    @GetMapping(value = "/history", params = "format=ndjson")
+    @Operation(hidden = true)
+    public ResponseEntity<StreamingResponseBody> exportWeatherByFormat(@RequestParam(name = "user", required = false) String user,
+                                                                       @RequestParam(name = "postalCode", required = false) String postalCode) throws WeatherException {
+        return exportWeather(user, postalCode);
+    }
     }
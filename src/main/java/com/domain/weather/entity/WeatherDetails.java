@@ -15,7 +15,8 @@ import javax.persistence.*;
 public class WeatherDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_details_seq")
+    @SequenceGenerator(name = "weather_details_seq", sequenceName = "weather_details_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "precipitation")
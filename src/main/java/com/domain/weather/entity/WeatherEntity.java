@@ -6,18 +6,26 @@ import java.time.LocalDateTime;
 /**
  * Represents a weather entity in the weather application.
  * Contains information about the user, postal code, and timestamp of the weather request.
- * Also includes a one-to-one relationship with the `WeatherDetails` entity.
+ * Also includes a one-to-one relationship with the `WeatherDetails` entity, loaded lazily unless a
+ * query fetches it; the history queries fetch it in the same select.
+ * The indexes follow the history access paths: filter by user and/or postal code, newest id first.
  *
  * @author Puja Chaudhury
  * @version 1.0
  * @since December 2024
  */
 @Entity
-@Table(name = "weather")
+@Table(name = "weather", indexes = {
+        @Index(name = "idx_weather_username_id", columnList = "username, id"),
+        @Index(name = "idx_weather_postalcode_id", columnList = "postalcode, id"),
+        @Index(name = "idx_weather_username_postalcode_id", columnList = "username, postalcode, id")
+})
 public class WeatherEntity {
 
+    // Pooled sequence ids are assigned without a round trip per insert, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_seq")
+    @SequenceGenerator(name = "weather_seq", sequenceName = "weather_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "username", nullable = false)
@@ -29,7 +37,7 @@ public class WeatherEntity {
     @Column(name = "request_timestamp", nullable = false)
     private LocalDateTime timestamp;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "weather_details_id", nullable = false)
     private WeatherDetails weatherDetails;
 
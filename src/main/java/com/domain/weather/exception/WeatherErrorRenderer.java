@@ -0,0 +1,120 @@
+package com.domain.weather.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes error responses as JSON bytes without going through Jackson. The start of each body, the message and the
+ * code, is encoded once per message; only the timestamp is written per response. Errors without a timestamp, such
+ * as cached WeatherExceptions, are stamped with the current time to the millisecond, and every response within the
+ * same millisecond gets the same bytes. The output is what Jackson writes for a WeatherErrorResponse.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+final class WeatherErrorRenderer {
+
+    private static final int MAX_TEMPLATES = 64;
+
+    private final Clock clock;
+
+    private final ConcurrentMap<String, Template> templates = new ConcurrentHashMap<>();
+
+    WeatherErrorRenderer(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Renders an error response.
+     *
+     * @param code      the error code
+     * @param message   the error message
+     * @param timestamp the time of the error, or null for now
+     * @return the response body; it may be shared with other responses and must not be changed
+     */
+    byte[] render(String code, String message, LocalDateTime timestamp) {
+        Template template = template(code, message);
+        if (timestamp != null) {
+            return template.render(timestamp);
+        }
+        long now = clock.millis();
+        Rendered last = template.last;
+        if (last != null && last.millis == now) {
+            return last.body;
+        }
+        byte[] body = template.render(LocalDateTime.ofInstant(Instant.ofEpochMilli(now), clock.getZone()));
+        template.last = new Rendered(now, body);
+        return body;
+    }
+
+    private Template template(String code, String message) {
+        Template template = message == null ? null : templates.get(message);
+        if (template != null && template.code.equals(code)) {
+            return template;
+        }
+        if (template == null && message != null && code != null && templates.size() < MAX_TEMPLATES) {
+            template = templates.computeIfAbsent(message, key -> new Template(code, key));
+            if (template.code.equals(code)) {
+                return template;
+            }
+        }
+        return new Template(code, message);
+    }
+
+    /**
+     * The encoded start of the body for one code and message, and the last body rendered from it.
+     */
+    private static final class Template {
+
+        private final String code;
+
+        private final byte[] prefix;
+
+        private volatile Rendered last;
+
+        private Template(String code, String message) {
+            this.code = code;
+            this.prefix = ("{\"message\":" + quote(message) + ",\"code\":" + quote(code) + ",\"timestamp\":")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        private byte[] render(LocalDateTime timestamp) {
+            String text = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp);
+            byte[] body = Arrays.copyOf(prefix, prefix.length + text.length() + 3);
+            int position = prefix.length;
+            body[position++] = '"';
+            // ISO dates are ASCII
+            for (int i = 0; i < text.length(); i++) {
+                body[position++] = (byte) text.charAt(i);
+            }
+            body[position++] = '"';
+            body[position] = '}';
+            return body;
+        }
+
+        private static String quote(String value) {
+            return value == null ? "null" : "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + "\"";
+        }
+    }
+
+    private static final class Rendered {
+
+        private final long millis;
+
+        private final byte[] body;
+
+        private Rendered(long millis, byte[] body) {
+            this.millis = millis;
+            this.body = body;
+        }
+    }
+}
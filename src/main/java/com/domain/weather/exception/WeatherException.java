@@ -3,10 +3,16 @@ package com.domain.weather.exception;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents an exception that occurs when an error occurs during the retrieval of weather information.
  * Provides a way to handle and handle weather-related exceptions in the application.
+ * Expected errors, such as invalid requests, rejected calls and upstream failures that were already logged, are
+ * created without a stack trace through stackless, or shared through cached, since filling in the stack is most
+ * of what a throw costs and the stack of an expected error is never looked at.
  *
  * @author Puja Chaudhury
  * @version 1.0
@@ -19,6 +25,10 @@ public class WeatherException extends RuntimeException {
     public static final String INVALID_USER_MSG = "The specified user is invalid or does not exist. Please verify the details.";
     public static final String INTERNAL_SERVER_ERROR_MSG = "An unexpected error occurred on the server. Please try again later.";
     public static final String INVALID_REQUEST_MSG = "Invalid request body. The user and postalCode fields are required and cannot be empty.";
+    public static final String INVALID_PAGE_MSG = "Invalid page request. The limit must be positive and the cursor must come from a previous response.";
+    public static final String INVALID_BULK_MSG = "Invalid bulk request. Send between 1 and the maximum number of weather requests allowed.";
+    public static final String SERVICE_UNAVAILABLE_MSG = "The weather provider is temporarily unavailable. Please try again later.";
+    public static final String POSTAL_CODE_NOT_FOUND_MSG = "No weather was found for the provided postal code. Please check it and try again.";
     public static final String INVALID_ACCESS_KEY_MSG = "You have not supplied a valid API Access Key. [Technical Support: support@apilayer.com]";
 
     public static final String INVALID_POSTAL_CODE_ERROR = "W-0001";
@@ -27,6 +37,11 @@ public class WeatherException extends RuntimeException {
     public static final String INTERNAL_SERVER_ERROR = "W-0004";
     public static final String INVALID_REQUEST_ERROR = "W-0005";
     public static final String INVALID_ACCESS_KEY = "W-0006";
+    public static final String SERVICE_UNAVAILABLE_ERROR = "W-0007";
+
+    private static final int MAX_CACHED = 64;
+
+    private static final ConcurrentMap<String, WeatherException> CACHED = new ConcurrentHashMap<>();
 
     @Schema(description = "Error code")
     private String code;
@@ -44,6 +59,51 @@ public class WeatherException extends RuntimeException {
         this.timestamp = timestamp;
         }
 
+    /**
+     * Creates an exception that fills in its stack trace only if asked to. Exceptions without a stack trace also
+     * take no suppressed exceptions.
+     *
+     * @param writableStackTrace whether to fill in the stack trace
+     */
+    public WeatherException(String code, String message, LocalDateTime timestamp, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+        this.code = code;
+        this.message = message;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Creates an exception for an expected error, timestamped now and without a stack trace.
+     *
+     * @param code    the error code
+     * @param message the error message
+     * @return the exception
+     */
+    public static WeatherException stackless(String code, String message) {
+        return new WeatherException(code, message, LocalDateTime.now(), false);
+    }
+
+    /**
+     * Returns a shared, immutable exception for an expected error, without a stack trace or timestamp, so throwing
+     * it allocates nothing. The error response is timestamped when it is written. One instance is kept per
+     * message, for up to 64 messages; past that, or for a message already shared with another code, a new
+     * stackless exception is returned.
+     *
+     * @param code    the error code
+     * @param message the error message
+     * @return the exception
+     */
+    public static WeatherException cached(String code, String message) {
+        if (message == null) {
+            return stackless(code, message);
+        }
+        WeatherException cached = CACHED.get(message);
+        if (cached == null && CACHED.size() < MAX_CACHED) {
+            cached = CACHED.computeIfAbsent(message, key -> new Shared(code, key));
+        }
+        return cached != null && Objects.equals(cached.code, code) ? cached : stackless(code, message);
+    }
+
     public String getCode() {
         return code;
     }
@@ -78,4 +138,29 @@ public class WeatherException extends RuntimeException {
                 ", timestamp=" + timestamp +
                 '}';
     }
+
+    /**
+     * A cached exception. It is thrown from many threads at once, so its fields cannot be changed.
+     */
+    private static final class Shared extends WeatherException {
+
+        private Shared(String code, String message) {
+            super(code, message, null, false);
+        }
+
+        @Override
+        public void setCode(String code) {
+            throw new UnsupportedOperationException("Cached WeatherException cannot be changed");
+        }
+
+        @Override
+        public void setMessage(String message) {
+            throw new UnsupportedOperationException("Cached WeatherException cannot be changed");
+        }
+
+        @Override
+        public void setTimestamp(LocalDateTime timestamp) {
+            throw new UnsupportedOperationException("Cached WeatherException cannot be changed");
+        }
+    }
     }
@@ -1,19 +1,20 @@
 package com.domain.weather.exception;
 
-import com.domain.weather.model.WeatherErrorResponse;
+import com.domain.weather.utility.WeatherMetrics;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.Clock;
 
 /**
  * Represents a global exception handler for the weather application.
  * Provides a way to handle and handle weather-related exceptions.
+ * Every error returned is counted by its WeatherException code.
+ * Error bodies are written by WeatherErrorRenderer from pre-encoded bytes rather than serialized per response.
  *
  * @author Puja Chaudhury
  * @version 1.0
@@ -22,28 +23,31 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class WeatherGlobalException {
 
+    private final WeatherMetrics weatherMetrics;
+
+    private final WeatherErrorRenderer weatherErrorRenderer = new WeatherErrorRenderer(Clock.systemDefaultZone());
+
+    public WeatherGlobalException(WeatherMetrics weatherMetrics) {
+        this.weatherMetrics = weatherMetrics;
+    }
+
     @ExceptionHandler(WeatherException.class)
-    public ResponseEntity<WeatherErrorResponse> handleWeatherException(WeatherException ex) {
+    public ResponseEntity<byte[]> handleWeatherException(WeatherException ex) {
+        weatherMetrics.countException(ex.getCode());
         HttpStatus status = mapErrorToStatus(ex.getCode());
-        return new ResponseEntity<>(new WeatherErrorResponse(ex.getMessage(), ex.getCode(), ex.getTimestamp()),status);
+        // Errors are always JSON, also for requests that only accept application/x-ndjson
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(weatherErrorRenderer.render(ex.getCode(), ex.getMessage(), ex.getTimestamp()));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<WeatherErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        WeatherErrorResponse response = new WeatherErrorResponse();
-        List<String> errors = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .map(error -> error.getField() + ": " + error.getDefaultMessage())
-                .collect(Collectors.toList());
-
-        for(String error : errors) {
-            response.setCode(WeatherException.INVALID_REQUEST_ERROR);
-            response.setMessage(WeatherException.INVALID_REQUEST_MSG);
-            response.setTimestamp(LocalDateTime.now());
-           }
-
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        // Every field error gets the same response, so the field errors are not looked at
+        weatherMetrics.countException(WeatherException.INVALID_REQUEST_ERROR);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(weatherErrorRenderer.render(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_REQUEST_MSG, null));
     }
 
     private HttpStatus mapErrorToStatus(String errorCode) {
@@ -52,6 +56,8 @@ public class WeatherGlobalException {
                 return HttpStatus.BAD_REQUEST;
             case WeatherException.NOT_FOUND_ERROR:
                 return HttpStatus.NOT_FOUND;
+            case WeatherException.SERVICE_UNAVAILABLE_ERROR:
+                return HttpStatus.SERVICE_UNAVAILABLE;
             default:
                 return HttpStatus.INTERNAL_SERVER_ERROR;
         }
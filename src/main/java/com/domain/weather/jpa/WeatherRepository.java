@@ -1,14 +1,27 @@
 package com.domain.weather.jpa;
 
 import com.domain.weather.entity.WeatherEntity;
+import com.domain.weather.model.WeatherSummaryDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Represents a repository for weather entities.
- * Provides CRUD operations for weather entities.
+ * Provides CRUD operations for weather entities, and keyset-paginated history queries that
+ * return the newest rows with an id below a cursor, so a page costs the same however large the table grows.
+ * Finders that return history fetch the weather details in the same select, so a page is one round trip.
+ * The findHistory queries are the read-only path: they project rows straight into history DTOs, so nothing
+ * is hydrated, dirty-checked or kept in the persistence context. The streamHistory queries use the same
+ * projection over a forward-only cursor for exports; they must be consumed and closed inside a transaction.
  *
  * @author Puja Chaudhury
  * @version 1.0
@@ -17,11 +30,52 @@ import java.util.List;
 @Repository
 public interface WeatherRepository extends JpaRepository<WeatherEntity, Long> {
 
+    String HISTORY_PROJECTION = "select new com.domain.weather.model.WeatherSummaryDTO$WeatherHistory("
+            + "w.id, d.country, d.city, d.latitude, d.longitude, d.region, d.localtime, d.timezoneId, d.utc_offset, "
+            + "d.localtime_epoch, d.cloudCover, d.feelsLike, d.humidity, d.isDay, d.precipitation, d.pressure, "
+            + "d.temperature, d.uvIndex, d.visibility, d.weatherDescription, d.weatherIconUrl, d.windDegree, "
+            + "d.windSpeed, d.windDirection, d.observation_time, d.weather_code) "
+            + "from WeatherEntity w join w.weatherDetails d ";
+
+    String EXPORT_FETCH_SIZE = "500";
+
     WeatherEntity findByUserOrPostalCode(String user, String postalCode);
 
+    @EntityGraph(attributePaths = "weatherDetails")
     List<WeatherEntity> findByUserAndPostalCode(String user, String postalCode);
 
+    @EntityGraph(attributePaths = "weatherDetails")
     List<WeatherEntity> findByUser(String user);
 
+    @EntityGraph(attributePaths = "weatherDetails")
     List<WeatherEntity> findByPostalCode(String postalCode);
+
+    @Query(HISTORY_PROJECTION + "where w.id < :id order by w.id desc")
+    List<WeatherSummaryDTO.WeatherHistory> findHistory(@Param("id") Long id, Pageable pageable);
+
+    @Query(HISTORY_PROJECTION + "where w.user = :user and w.id < :id order by w.id desc")
+    List<WeatherSummaryDTO.WeatherHistory> findHistoryByUser(@Param("user") String user, @Param("id") Long id, Pageable pageable);
+
+    @Query(HISTORY_PROJECTION + "where w.postalCode = :postalCode and w.id < :id order by w.id desc")
+    List<WeatherSummaryDTO.WeatherHistory> findHistoryByPostalCode(@Param("postalCode") String postalCode, @Param("id") Long id, Pageable pageable);
+
+    @Query(HISTORY_PROJECTION + "where w.user = :user and w.postalCode = :postalCode and w.id < :id order by w.id desc")
+    List<WeatherSummaryDTO.WeatherHistory> findHistoryByUserAndPostalCode(@Param("user") String user, @Param("postalCode") String postalCode,
+                                                                          @Param("id") Long id, Pageable pageable);
+
+    @Query(HISTORY_PROJECTION + "order by w.id desc")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<WeatherSummaryDTO.WeatherHistory> streamHistory();
+
+    @Query(HISTORY_PROJECTION + "where w.user = :user order by w.id desc")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<WeatherSummaryDTO.WeatherHistory> streamHistoryByUser(@Param("user") String user);
+
+    @Query(HISTORY_PROJECTION + "where w.postalCode = :postalCode order by w.id desc")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<WeatherSummaryDTO.WeatherHistory> streamHistoryByPostalCode(@Param("postalCode") String postalCode);
+
+    @Query(HISTORY_PROJECTION + "where w.user = :user and w.postalCode = :postalCode order by w.id desc")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<WeatherSummaryDTO.WeatherHistory> streamHistoryByUserAndPostalCode(@Param("user") String user, @Param("postalCode") String postalCode);
 }
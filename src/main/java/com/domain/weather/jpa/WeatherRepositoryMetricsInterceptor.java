@@ -0,0 +1,106 @@
+package com.domain.weather.jpa;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * WeatherRepositoryMetricsInterceptor records how many rows each repository method returns, as a distribution
+ * summary tagged with the repository and method. Query latency per method is already timed by Spring Boot as
+ * spring.data.repository.invocations.
+ * <p>
+ * A collection or slice counts its elements, an Optional or a single result counts as one row or none, and a
+ * Stream is counted as it is consumed and recorded when it is closed. Methods that return nothing are not
+ * recorded. Summaries are created on the first call of each method and cached, so later calls only look one up.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherRepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    private final Supplier<MeterRegistry> registry;
+
+    private final Map<Method, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param repository the repository name to tag the summaries with
+     * @param registry   supplies the registry on first use, so repositories can be created before it exists;
+     *                   nothing is recorded while it supplies null
+     */
+    public WeatherRepositoryMetricsInterceptor(String repository, Supplier<MeterRegistry> registry) {
+        this.repository = repository;
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Method method = invocation.getMethod();
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class || returnType == Void.class) {
+            return result;
+        }
+        DistributionSummary rows = rowSummary(method);
+        if (rows == null) {
+            return result;
+        }
+        if (result instanceof Stream) {
+            return countOnClose((Stream<?>) result, rows);
+        }
+        rows.record(countRows(result));
+        return result;
+    }
+
+    private DistributionSummary rowSummary(Method method) {
+        DistributionSummary summary = rowSummaries.get(method);
+        if (summary == null) {
+            MeterRegistry meterRegistry = registry.get();
+            if (meterRegistry == null) {
+                return null;
+            }
+            summary = rowSummaries.computeIfAbsent(method, key -> DistributionSummary.builder("weather.repository.rows")
+                    .description("Rows returned by repository methods")
+                    .baseUnit("rows")
+                    .tag("repository", repository)
+                    .tag("method", key.getName())
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(100_000.0)
+                    .register(meterRegistry));
+        }
+        return summary;
+    }
+
+    private static Stream<?> countOnClose(Stream<?> stream, DistributionSummary rows) {
+        long[] count = new long[1];
+        return stream.peek(row -> count[0]++).onClose(() -> rows.record(count[0]));
+    }
+
+    private static long countRows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+}
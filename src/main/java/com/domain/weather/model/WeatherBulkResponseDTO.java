@@ -0,0 +1,102 @@
+package com.domain.weather.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Represents the response to a bulk weather save.
+ * Contains one result per request item, in request order, each holding either the saved
+ * weather or the error for that item, plus counts of saved and failed items.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherBulkResponseDTO {
+
+    private int saved;
+
+    private int failed;
+
+    private List<Result> results;
+
+    public static class Result {
+
+        private int index;
+
+        private String user;
+
+        private String postalCode;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private WeatherSummaryDTO.WeatherHistory weather;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private WeatherErrorResponse error;
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public void setUser(String user) {
+            this.user = user;
+        }
+
+        public String getPostalCode() {
+            return postalCode;
+        }
+
+        public void setPostalCode(String postalCode) {
+            this.postalCode = postalCode;
+        }
+
+        public WeatherSummaryDTO.WeatherHistory getWeather() {
+            return weather;
+        }
+
+        public void setWeather(WeatherSummaryDTO.WeatherHistory weather) {
+            this.weather = weather;
+        }
+
+        public WeatherErrorResponse getError() {
+            return error;
+        }
+
+        public void setError(WeatherErrorResponse error) {
+            this.error = error;
+        }
+    }
+
+    public int getSaved() {
+        return saved;
+    }
+
+    public void setSaved(int saved) {
+        this.saved = saved;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Result> results) {
+        this.results = results;
+    }
+}
@@ -1,11 +1,16 @@
 package com.domain.weather.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Represents the summary of weather conditions.
  * Contains information such as observation time, temperature, weather code,
  * weather icons, weather descriptions, and other related data.
+ * When more history is available, nextCursor holds the token for the next page.
  *
  * @author Puja Chaudhury
  * @version 1.0
@@ -15,12 +20,71 @@ public class WeatherSummaryDTO {
 
     private List<WeatherHistory> history;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     public static class WeatherHistory {
 
+        @JsonIgnore
+        private Long id;
+
         private LocationDTO location;
 
         private CurrentDTO  weather;
 
+        public WeatherHistory() {
+        }
+
+        /**
+         * Builds a history entry straight from a query row, used by the read-only history projection
+         * so that no WeatherEntity or WeatherDetails is hydrated.
+         */
+        public WeatherHistory(Long id, String country, String city, String latitude, String longitude, String region,
+                              String localtime, String timezoneId, String utcOffset, long localtimeEpoch,
+                              Integer cloudCover, Integer feelsLike, Integer humidity, String isDay, String precipitation,
+                              Integer pressure, Integer temperature, Integer uvIndex, Integer visibility,
+                              String weatherDescription, String weatherIconUrl, Integer windDegree, Integer windSpeed,
+                              String windDirection, String observationTime, int weatherCode) {
+            this.id = id;
+            this.location = new LocationDTO.Builder()
+                    .country(country)
+                    .name(city)
+                    .lat(latitude)
+                    .lon(longitude)
+                    .region(region)
+                    .localtime(localtime)
+                    .timezone_id(timezoneId)
+                    .utc_offset(utcOffset)
+                    .localtime_epoch(localtimeEpoch)
+                    .build();
+            this.weather = new CurrentDTO.Builder()
+                    .cloudcover(cloudCover)
+                    .feelslike(feelsLike)
+                    .humidity(humidity)
+                    .is_day(isDay)
+                    .precip(Integer.parseInt(precipitation))
+                    .pressure(pressure)
+                    .temperature(temperature)
+                    .uv_index(uvIndex)
+                    .visibility(visibility)
+                    .weather_descriptions(Arrays.asList(weatherDescription))
+                    .weather_icons(Arrays.asList(weatherIconUrl))
+                    .wind_degree(windDegree)
+                    .wind_speed(windSpeed)
+                    .wind_dir(windDirection)
+                    .observation_time(observationTime)
+                    .weather_code(weatherCode)
+                    .build();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
         public LocationDTO getLocation() {
             return location;
         }
@@ -45,4 +109,12 @@ public class WeatherSummaryDTO {
     public void setHistory(List<WeatherHistory> history) {
         this.history = history;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
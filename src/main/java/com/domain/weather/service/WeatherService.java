@@ -1,9 +1,15 @@
 package com.domain.weather.service;
 
 import com.domain.weather.exception.WeatherException;
+import com.domain.weather.model.WeatherBulkResponseDTO;
 import com.domain.weather.model.WeatherRequestDTO;
 import com.domain.weather.model.WeatherSummaryDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Represents a service interface for weather-related operations.
  * Provides methods to retrieve and save weather information.
@@ -16,5 +22,13 @@ public interface WeatherService{
 
     WeatherSummaryDTO getWeather(String user, String postalCode);
 
+    WeatherSummaryDTO getWeather(String user, String postalCode, String cursor, Integer limit);
+
+    long exportWeather(String user, String postalCode, OutputStream out) throws IOException;
+
     WeatherSummaryDTO.WeatherHistory saveWeather(WeatherRequestDTO weatherRequestDTO) throws WeatherException;
+
+    CompletableFuture<WeatherSummaryDTO.WeatherHistory> saveWeatherAsync(WeatherRequestDTO weatherRequestDTO);
+
+    WeatherBulkResponseDTO saveWeatherBulk(List<WeatherRequestDTO> weatherRequestDTOs) throws WeatherException;
 }
@@ -3,17 +3,44 @@ package com.domain.weather.service;
 import com.domain.weather.entity.WeatherEntity;
 import com.domain.weather.exception.WeatherException;
 import com.domain.weather.jpa.WeatherRepository;
+import com.domain.weather.model.WeatherBulkResponseDTO;
+import com.domain.weather.model.WeatherErrorResponse;
 import com.domain.weather.model.WeatherRequestDTO;
 import com.domain.weather.model.WeatherResponseDTO;
 import com.domain.weather.model.WeatherSummaryDTO;
+import com.domain.weather.utility.WeatherBulkhead;
+import com.domain.weather.utility.WeatherCircuitBreaker;
+import com.domain.weather.utility.WeatherGazetteer;
+import com.domain.weather.utility.WeatherMetrics;
+import com.domain.weather.utility.WeatherNegativeCache;
+import com.domain.weather.utility.WeatherPayloadSampler;
+import com.domain.weather.utility.WeatherRateLimiter;
+import com.domain.weather.utility.WeatherRequestCoalescer;
+import com.domain.weather.utility.WeatherResponseCache;
 import com.domain.weather.utility.WeatherUtility;
+import com.domain.weather.utility.WeatherWebClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * WeatherServiceImpl is a service class that handles weather-related operations.
@@ -31,34 +58,176 @@ public class WeatherServiceImpl implements WeatherService {
     @Autowired
     private WeatherRepository weatherRepository;
 
+    @Autowired
+    private WeatherWebClient weatherWebClient;
+
+    @Autowired
+    private WeatherRequestCoalescer weatherRequestCoalescer;
+
+    @Autowired
+    private WeatherResponseCache weatherResponseCache;
+
+    @Autowired
+    private WeatherWriteBehindPersister weatherWriteBehindPersister;
+
+    @Autowired
+    private WeatherUpstreamExecutor weatherUpstreamExecutor;
+
+    @Autowired
+    private WeatherCircuitBreaker weatherCircuitBreaker;
+
+    @Autowired
+    private WeatherBulkhead weatherBulkhead;
+
+    @Autowired
+    private WeatherRateLimiter weatherRateLimiter;
+
+    @Autowired
+    private WeatherMetrics weatherMetrics;
+
+    @Autowired
+    private WeatherPayloadSampler weatherPayloadSampler;
+
+    @Autowired
+    private WeatherNegativeCache weatherNegativeCache;
+
+    @Autowired
+    private WeatherGazetteer weatherGazetteer;
+
+    @Value("${weather.history.default-limit:50}")
+    private int defaultHistoryLimit;
+
+    @Value("${weather.history.max-limit:500}")
+    private int maxHistoryLimit;
+
+    @Value("${weather.bulk.max-items:1000}")
+    private int maxBulkItems;
+
+    @Value("${weather.bulk.fetch-concurrency:8}")
+    private int bulkFetchConcurrency;
+
+    @Value("${weather.bulk.batch-size:50}")
+    private int bulkBatchSize;
+
     /**
-     * Retrieves weather details for a given postal code.
+     * Retrieves the first page of weather history for a given user and/or postal code.
      *
      * @param user          the user associated with the weather request
      * @param postalCode    the postal code associated with the weather request
      * @return the weather summary DTO
-     * @throws WeatherException if there is an error with the request or retrieving the weather data
      */
     @Override
     public WeatherSummaryDTO getWeather(String user, String postalCode) {
-        logger.debug("Retrieving weather for user: {}, postal code: {}", user, postalCode);
+        return getWeather(user, postalCode, null, null);
+    }
+
+    /**
+     * Retrieves one page of weather history for a given user and/or postal code, newest first.
+     * Pages are read by keyset on id, so each page is a bounded index range scan however large the table is,
+     * and rows are projected straight into history DTOs without hydrating entities.
+     *
+     * @param user          the user associated with the weather request
+     * @param postalCode    the postal code associated with the weather request
+     * @param cursor        the next cursor from a previous page, or null for the first page
+     * @param limit         the page size, or null for the default; capped at the configured maximum
+     * @return the weather summary DTO, with a next cursor when more history is available
+     * @throws WeatherException if the cursor or limit is invalid
+     */
+    @Override
+    public WeatherSummaryDTO getWeather(String user, String postalCode, String cursor, Integer limit) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            WeatherSummaryDTO weatherSummaryDTO = findWeatherPage(user, postalCode, cursor, limit);
+            success = true;
+            return weatherSummaryDTO;
+        } finally {
+            weatherMetrics.recordService(WeatherMetrics.Operation.GET_WEATHER, start, success);
+        }
+    }
+
+    private WeatherSummaryDTO findWeatherPage(String user, String postalCode, String cursor, Integer limit) {
+        logger.debug("Retrieving weather for user: {}, postal code: {}, cursor: {}, limit: {}", user, postalCode, cursor, limit);
+        int pageSize = resolveHistoryLimit(limit);
+        long beforeId = WeatherUtility.decodeHistoryCursor(cursor);
+        // One row beyond the page tells us whether there is a next page without a count query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        boolean validPostalCode = WeatherUtility.validatePostalCode(postalCode);
+        boolean validUser = WeatherUtility.validateUser(user);
+        List<WeatherSummaryDTO.WeatherHistory> history;
+        if (validUser && validPostalCode) {
+            history = weatherRepository.findHistoryByUserAndPostalCode(user, postalCode, beforeId, pageable);
+        } else if (validUser) {
+            history = weatherRepository.findHistoryByUser(user, beforeId, pageable);
+        } else if (validPostalCode) {
+            history = weatherRepository.findHistoryByPostalCode(postalCode, beforeId, pageable);
+        } else {
+            history = weatherRepository.findHistory(beforeId, pageable);
+        }
+        return WeatherUtility.convertWeatherHistoryToWeatherPage(history, pageSize);
+    }
+
+    /**
+     * Streams all weather history for a given user and/or postal code, newest first, as newline-delimited JSON.
+     * Rows are read through a database cursor and written as they arrive, so memory use does not depend on
+     * how many rows match.
+     *
+     * @param user          the user associated with the weather request
+     * @param postalCode    the postal code associated with the weather request
+     * @param out           the stream to write to
+     * @return the number of entries written
+     * @throws IOException if writing fails, for example because the client went away
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportWeather(String user, String postalCode, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            long exported = writeWeatherExport(user, postalCode, out);
+            success = true;
+            return exported;
+        } finally {
+            weatherMetrics.recordService(WeatherMetrics.Operation.EXPORT_WEATHER, start, success);
+        }
+    }
+
+    private long writeWeatherExport(String user, String postalCode, OutputStream out) throws IOException {
+        logger.debug("Exporting weather for user: {}, postal code: {}", user, postalCode);
         boolean validPostalCode = WeatherUtility.validatePostalCode(postalCode);
         boolean validUser = WeatherUtility.validateUser(user);
-        List<WeatherEntity> weather;
+        Stream<WeatherSummaryDTO.WeatherHistory> history;
         if (validUser && validPostalCode) {
-            weather = weatherRepository.findByUserAndPostalCode(user, postalCode);
+            history = weatherRepository.streamHistoryByUserAndPostalCode(user, postalCode);
         } else if (validUser) {
-            weather = weatherRepository.findByUser(user);
+            history = weatherRepository.streamHistoryByUser(user);
         } else if (validPostalCode) {
-            weather = weatherRepository.findByPostalCode(postalCode);
+            history = weatherRepository.streamHistoryByPostalCode(postalCode);
         } else {
-            weather = weatherRepository.findAll(Sort.by(Sort.Direction.DESC, "id"));
+            history = weatherRepository.streamHistory();
+        }
+        try (Stream<WeatherSummaryDTO.WeatherHistory> rows = history) {
+            long exported = WeatherUtility.writeWeatherHistoryNdjson(rows.iterator(), out);
+            logger.info("Exported {} weather history entries for user: {}, postal code: {}", exported, user, postalCode);
+            return exported;
+        }
+    }
+
+    private int resolveHistoryLimit(Integer limit) {
+        if (limit == null) {
+            return Math.max(1, Math.min(defaultHistoryLimit, maxHistoryLimit));
         }
-        return WeatherUtility.convertWeatherEntityToWeather(weather);
+        if (limit < 1) {
+            throw WeatherException.cached(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_PAGE_MSG);
+        }
+        return Math.min(limit, Math.max(1, maxHistoryLimit));
     }
 
     /**
      * Saves weather details for a given postal code.
+     * Responses are served from the cache while fresh, and concurrent saves for the same
+     * postal code share a single upstream fetch, but each one persists its own weather entity,
+     * either directly or through the write-behind queue when it is enabled.
      *
      * @param weatherRequestDTO the weather request DTO
      * @return the weather summary DTO
@@ -66,15 +235,279 @@ public class WeatherServiceImpl implements WeatherService {
      */
     @Override
     public WeatherSummaryDTO.WeatherHistory saveWeather(WeatherRequestDTO weatherRequestDTO) throws WeatherException {
-        WeatherResponseDTO weatherResponseDTO = WeatherUtility.fetchWeatherFromAPI(weatherRequestDTO);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            WeatherSummaryDTO.WeatherHistory weatherHistory = saveWeatherEntity(weatherRequestDTO);
+            success = true;
+            return weatherHistory;
+        } finally {
+            weatherMetrics.recordService(WeatherMetrics.Operation.SAVE_WEATHER, start, success);
+        }
+    }
+
+    private WeatherSummaryDTO.WeatherHistory saveWeatherEntity(WeatherRequestDTO weatherRequestDTO) {
+        String postalCode = WeatherUtility.normalizePostalCode(weatherRequestDTO.getPostalCode());
+        WeatherResponseDTO weatherResponseDTO = weatherResponseCache.get(postalCode, code -> fetchWeather(code, weatherRequestDTO.getUser()), this::refreshWeather);
 
         WeatherEntity weatherEntity = buildWeatherEntity(weatherResponseDTO, weatherRequestDTO);
 
-        weatherRepository.save(weatherEntity);
+        if (weatherWriteBehindPersister.isEnabled()) {
+            weatherWriteBehindPersister.persist(weatherEntity);
+        } else {
+            weatherRepository.save(weatherEntity);
+        }
 
         return WeatherUtility.convertWeatherEntityToWeatherHistory(weatherEntity);
     }
 
+    /**
+     * Saves weather details for a given postal code on the upstream executor, so the calling
+     * thread is not held while the Weather API responds.
+     *
+     * @param weatherRequestDTO the weather request DTO
+     * @return the weather summary DTO, completed once saved; fails with a WeatherException if the
+     * save fails, the executor is saturated or the save times out
+     */
+    @Override
+    public CompletableFuture<WeatherSummaryDTO.WeatherHistory> saveWeatherAsync(WeatherRequestDTO weatherRequestDTO) {
+        return weatherUpstreamExecutor.submit(() -> saveWeather(weatherRequestDTO));
+    }
+
+    /**
+     * Saves weather details for many requests at once.
+     * Each distinct postal code is fetched once, in parallel up to the configured concurrency, through the same
+     * cache and coalescing as single saves. The entities are then inserted in batches, one transaction per batch.
+     * Invalid items and failed fetches or inserts are reported per item instead of failing the whole request.
+     *
+     * @param weatherRequestDTOs the weather requests
+     * @return one result per request, in request order
+     * @throws WeatherException if the list is empty or longer than the configured maximum
+     */
+    @Override
+    public WeatherBulkResponseDTO saveWeatherBulk(List<WeatherRequestDTO> weatherRequestDTOs) throws WeatherException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            WeatherBulkResponseDTO response = saveWeatherItems(weatherRequestDTOs);
+            success = true;
+            return response;
+        } finally {
+            weatherMetrics.recordService(WeatherMetrics.Operation.SAVE_WEATHER_BULK, start, success);
+        }
+    }
+
+    private WeatherBulkResponseDTO saveWeatherItems(List<WeatherRequestDTO> weatherRequestDTOs) {
+        if (weatherRequestDTOs == null || weatherRequestDTOs.isEmpty() || weatherRequestDTOs.size() > Math.max(1, maxBulkItems)) {
+            throw WeatherException.cached(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_BULK_MSG);
+        }
+
+        int size = weatherRequestDTOs.size();
+        List<WeatherBulkResponseDTO.Result> results = new ArrayList<>(size);
+        String[] postalCodes = new String[size];
+        Map<String, String> distinctPostalCodes = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            WeatherRequestDTO weatherRequestDTO = weatherRequestDTOs.get(i);
+            WeatherBulkResponseDTO.Result result = new WeatherBulkResponseDTO.Result();
+            result.setIndex(i);
+            results.add(result);
+            if (weatherRequestDTO != null) {
+                result.setUser(weatherRequestDTO.getUser());
+                result.setPostalCode(weatherRequestDTO.getPostalCode());
+            }
+            if (!WeatherUtility.validateWeather(weatherRequestDTO)) {
+                result.setError(toErrorResponse(WeatherException.cached(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_REQUEST_MSG)));
+                continue;
+            }
+            postalCodes[i] = WeatherUtility.normalizePostalCode(weatherRequestDTO.getPostalCode());
+            distinctPostalCodes.putIfAbsent(postalCodes[i], weatherRequestDTO.getUser());
+        }
+
+        Map<String, CompletableFuture<WeatherResponseDTO>> fetches = fetchAll(distinctPostalCodes);
+
+        List<Integer> pendingIndexes = new ArrayList<>(size);
+        List<WeatherEntity> pendingEntities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (postalCodes[i] == null) {
+                continue;
+            }
+            try {
+                WeatherResponseDTO weatherResponseDTO = fetches.get(postalCodes[i]).join();
+                pendingEntities.add(buildWeatherEntity(weatherResponseDTO, weatherRequestDTOs.get(i)));
+                pendingIndexes.add(i);
+            } catch (CompletionException e) {
+                results.get(i).setError(toErrorResponse(e.getCause()));
+            }
+        }
+
+        int batchSize = Math.max(1, bulkBatchSize);
+        for (int from = 0; from < pendingEntities.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, pendingEntities.size());
+            persistBatch(pendingEntities.subList(from, to), pendingIndexes.subList(from, to), results);
+        }
+
+        WeatherBulkResponseDTO response = new WeatherBulkResponseDTO();
+        response.setResults(results);
+        int saved = (int) results.stream().filter(result -> result.getError() == null).count();
+        response.setSaved(saved);
+        response.setFailed(size - saved);
+        logger.info("Bulk weather save: {} requests, {} postal codes fetched, {} saved, {} failed",
+                size, distinctPostalCodes.size(), saved, size - saved);
+        return response;
+    }
+
+    /**
+     * Fetches each postal code once, with at most the configured number of fetches in flight.
+     *
+     * The fetches run on the shared upstream executor, so concurrent bulk requests are bounded together with
+     * single saves, and a fetch the executor has no room for fails its items. In virtual-thread mode each fetch
+     * gets its own virtual thread from that executor rather than a pooled one. Each fetch is rate limited on
+     * behalf of the first user that asked for the postal code.
+     *
+     * @param postalCodes the distinct normalized postal codes, mapped to the user they are fetched for
+     * @return the completed fetch per postal code
+     */
+    private Map<String, CompletableFuture<WeatherResponseDTO>> fetchAll(Map<String, String> postalCodes) {
+        Map<String, CompletableFuture<WeatherResponseDTO>> fetches = new HashMap<>();
+        if (postalCodes.isEmpty()) {
+            return fetches;
+        }
+        // Caps this request's share of the upstream executor, so one bulk request cannot take all of it
+        Semaphore fanOut = new Semaphore(Math.max(1, bulkFetchConcurrency));
+        for (Map.Entry<String, String> postalCode : postalCodes.entrySet()) {
+            CompletableFuture<WeatherResponseDTO> fetch;
+            try {
+                fanOut.acquire();
+                fetch = weatherUpstreamExecutor.submit(
+                        () -> weatherResponseCache.get(postalCode.getKey(), code -> fetchWeather(code, postalCode.getValue()), this::refreshWeather));
+                fetch.whenComplete((response, e) -> fanOut.release());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fetch = CompletableFuture.failedFuture(
+                        WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG));
+            }
+            fetches.put(postalCode.getKey(), fetch);
+        }
+        CompletableFuture.allOf(fetches.values().toArray(new CompletableFuture[0])).handle((ignored, e) -> null).join();
+        return fetches;
+    }
+
+    /**
+     * Inserts one batch of entities in a single transaction. If the batch fails, its entities are
+     * saved one by one so that only the offending items are reported as failed.
+     */
+    private void persistBatch(List<WeatherEntity> entities, List<Integer> indexes, List<WeatherBulkResponseDTO.Result> results) {
+        try {
+            weatherRepository.saveAll(entities);
+            for (int i = 0; i < entities.size(); i++) {
+                results.get(indexes.get(i)).setWeather(WeatherUtility.convertWeatherEntityToWeatherHistory(entities.get(i)));
+            }
+        } catch (RuntimeException batchFailure) {
+            logger.warn("Bulk insert of {} weather entities failed, retrying one by one: {}", entities.size(), batchFailure.getMessage());
+            for (int i = 0; i < entities.size(); i++) {
+                WeatherEntity entity = entities.get(i);
+                WeatherBulkResponseDTO.Result result = results.get(indexes.get(i));
+                // Ids handed out by the failed batch were rolled back with it
+                entity.setId(null);
+                if (entity.getWeatherData() != null) {
+                    entity.getWeatherData().setId(null);
+                }
+                try {
+                    weatherRepository.save(entity);
+                    result.setWeather(WeatherUtility.convertWeatherEntityToWeatherHistory(entity));
+                } catch (RuntimeException e) {
+                    logger.error("Error saving weather entity for postal code: {}", entity.getPostalCode(), e);
+                    result.setError(toErrorResponse(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a failed bulk item to its error response, counting it as a reported WeatherException.
+     */
+    private WeatherErrorResponse toErrorResponse(Throwable error) {
+        if (error instanceof WeatherException) {
+            WeatherException weatherException = (WeatherException) error;
+            weatherMetrics.countException(weatherException.getCode());
+            // Cached exceptions have no timestamp of their own
+            LocalDateTime timestamp = weatherException.getTimestamp() != null ? weatherException.getTimestamp() : LocalDateTime.now();
+            return new WeatherErrorResponse(weatherException.getMessage(), weatherException.getCode(), timestamp);
+        }
+        weatherMetrics.countException(WeatherException.INTERNAL_SERVER_ERROR);
+        return new WeatherErrorResponse(WeatherException.INTERNAL_SERVER_ERROR_MSG, WeatherException.INTERNAL_SERVER_ERROR, LocalDateTime.now());
+    }
+
+    /**
+     * Fetches weather details for a normalized postal code, sharing the upstream call with any
+     * concurrent fetch for the same postal code. The shared call is first admitted by the rate limiter,
+     * then goes through the circuit breaker and the bulkhead, so it fails fast while the Weather API
+     * is unhealthy or saturated. Its retries and hedges take rate limit tokens of their own, so every request
+     * to the Weather API is paced and counted against the quota. Time spent queued for a rate limit token or
+     * waiting between retries is not counted as a slow call.
+     * Postal codes that are not in the local postal code index, when unknown ZIP codes are rejected, or that the
+     * Weather API recently found no weather for, fail before any of that.
+     * A sample of the responses is logged at DEBUG.
+     *
+     * @param postalCode the normalized postal code
+     * @param user       the user the fetch is made for, used to share the rate limit fairly, or null for
+     *                   background work
+     * @return the weather response DTO
+     * @throws WeatherException if there is an error retrieving the weather data
+     */
+    private WeatherResponseDTO fetchWeather(String postalCode, String user) throws WeatherException {
+        weatherGazetteer.check(postalCode);
+        weatherNegativeCache.check(postalCode);
+        WeatherResponseDTO weatherResponseDTO;
+        try {
+            weatherResponseDTO = weatherRequestCoalescer.execute(postalCode, () -> weatherRateLimiter.execute(user, () -> callWeatherAPI(postalCode)));
+        } catch (WeatherException e) {
+            if (WeatherException.NOT_FOUND_ERROR.equals(e.getCode())) {
+                weatherNegativeCache.add(postalCode);
+            }
+            throw e;
+        }
+        weatherPayloadSampler.debug(logger, "Weather API response for postal code {}: {}", postalCode, weatherResponseDTO);
+        return weatherResponseDTO;
+    }
+
+    /**
+     * Fetches the weather for a background cache refresh, which is charged to the rate limiter's
+     * background share rather than to the user whose request first cached the postal code.
+     *
+     * @param postalCode the normalized postal code
+     * @return the weather response DTO
+     * @throws WeatherException if there is an error retrieving the weather data
+     */
+    private WeatherResponseDTO refreshWeather(String postalCode) throws WeatherException {
+        return fetchWeather(postalCode, null);
+    }
+
+    /**
+     * Calls the Weather API through the circuit breaker and the bulkhead, charging each retry and hedge to the
+     * rate limiter. A retry or hedge with no token free is not sent.
+     *
+     * @param postalCode the normalized postal code
+     * @return the weather response DTO
+     * @throws WeatherException if there is an error retrieving the weather data
+     */
+    private WeatherResponseDTO callWeatherAPI(String postalCode) throws WeatherException {
+        AtomicLong backoffNanos = new AtomicLong();
+        WeatherWebClient.AttemptGate gate = new WeatherWebClient.AttemptGate() {
+            @Override
+            public boolean tryAcquire() {
+                return weatherRateLimiter.tryAcquire();
+            }
+
+            @Override
+            public void backedOff(long nanos) {
+                backoffNanos.addAndGet(nanos);
+            }
+        };
+        return weatherCircuitBreaker.execute(() -> weatherBulkhead.execute(() -> WeatherUtility.fetchWeatherFromAPI(weatherWebClient, postalCode, gate)),
+                backoffNanos::get);
+    }
+
     /**
      * Builds a WeatherEntity object from a WeatherResponseDTO and a WeatherRequestDTO.
      *
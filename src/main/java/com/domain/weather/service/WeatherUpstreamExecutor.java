@@ -0,0 +1,224 @@
+package com.domain.weather.service;
+
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.utility.VirtualThreads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * WeatherUpstreamExecutor runs work that waits on the Weather API off the servlet request threads.
+ * It is a fixed-size pool with a bounded queue, so a slow upstream ties up at most the pool threads
+ * and the queued tasks; anything beyond that is rejected straight away instead of piling up.
+ * Each task also gets a deadline, after which its future fails even if the task is still running.
+ * <p>
+ * In virtual-thread mode (JDK 21 or later) every task gets its own virtual thread instead, and
+ * weather.threads.virtual.max-in-flight caps the tasks in flight. Virtual threads are cheap, so the cap is
+ * far above the pool size and only guards against runaway load; there is no queue, so anything over it is rejected.
+ * On an older JDK the setting is ignored with a warning.
+ * <p>
+ * Once bound to a registry, submitted, rejected and timed-out tasks are counted, and the running and queued
+ * tasks are gauged.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherUpstreamExecutor implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherUpstreamExecutor.class);
+
+    private final ExecutorService executor;
+
+    private final ThreadPoolExecutor pool;
+
+    private final Semaphore inFlight;
+
+    private final int maxInFlight;
+
+    private final long timeoutMs;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    @Autowired
+    public WeatherUpstreamExecutor(@Value("${weather.async.threads:32}") int threads,
+                                   @Value("${weather.async.queue-capacity:200}") int queueCapacity,
+                                   @Value("${weather.async.timeout-ms:15000}") long timeoutMs,
+                                   @Value("${weather.threads.virtual:false}") boolean virtual,
+                                   @Value("${weather.threads.virtual.max-in-flight:10000}") int virtualMaxInFlight) {
+        this.timeoutMs = timeoutMs;
+        if (virtual && !VirtualThreads.isSupported()) {
+            logger.warn("weather.threads.virtual is set but {} has no virtual threads, using a pool of {} platform threads",
+                    Runtime.version(), Math.max(1, threads));
+        }
+        if (virtual && VirtualThreads.isSupported()) {
+            this.maxInFlight = Math.max(1, virtualMaxInFlight);
+            this.executor = VirtualThreads.newThreadPerTaskExecutor("weather-upstream-");
+            this.pool = null;
+            this.inFlight = new Semaphore(maxInFlight);
+        } else {
+            this.maxInFlight = Math.max(1, threads);
+            AtomicInteger threadCount = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                Thread thread = new Thread(runnable, "weather-upstream-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+            this.inFlight = null;
+        }
+    }
+
+    public WeatherUpstreamExecutor(int threads, int queueCapacity, long timeoutMs) {
+        this(threads, queueCapacity, timeoutMs, false, 0);
+    }
+
+    /**
+     * Runs the task on the upstream pool.
+     * The returned future fails with {@link WeatherException#SERVICE_UNAVAILABLE_ERROR} if the pool and its queue
+     * are full or the task does not finish within the timeout, and with
+     * {@link WeatherException#INTERNAL_SERVER_ERROR} if the task itself fails with anything but a WeatherException.
+     *
+     * @param task the task to run
+     * @param <T>  the result type
+     * @return the future result of the task
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future;
+        if (inFlight != null) {
+            if (!inFlight.tryAcquire()) {
+                return rejected();
+            }
+            try {
+                future = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return task.get();
+                    } finally {
+                        inFlight.release();
+                    }
+                }, executor);
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                return rejected();
+            }
+        } else {
+            try {
+                future = CompletableFuture.supplyAsync(task, executor);
+            } catch (RejectedExecutionException e) {
+                return rejected();
+            }
+        }
+        submitted.increment();
+        if (timeoutMs > 0) {
+            future = future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        return future.handle((result, error) -> {
+            if (error == null) {
+                return result;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof WeatherException) {
+                throw (WeatherException) cause;
+            }
+            if (cause instanceof TimeoutException) {
+                // The task keeps running to completion; only its caller stops waiting
+                timedOut.increment();
+                logger.error("Upstream task did not finish within {} ms", timeoutMs);
+                throw serviceUnavailable();
+            }
+            logger.error("Upstream task failed", cause);
+            throw internalServerError();
+        });
+    }
+
+    private <T> CompletableFuture<T> rejected() {
+        rejected.increment();
+        logger.warn("Upstream executor saturated: {} active, {} queued", getActive(), getQueueDepth());
+        return CompletableFuture.failedFuture(serviceUnavailable());
+    }
+
+    /**
+     * Stops taking new tasks; tasks already running are left to finish on their daemon threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static WeatherException serviceUnavailable() {
+        return WeatherException.cached(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG);
+    }
+
+    private static WeatherException internalServerError() {
+        return WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.async.tasks", submitted, LongAdder::sum).tag("outcome", "submitted").register(registry);
+        FunctionCounter.builder("weather.async.tasks", rejected, LongAdder::sum)
+                .tag("outcome", "rejected")
+                .description("Upstream tasks rejected because the pool and its queue were full")
+                .register(registry);
+        FunctionCounter.builder("weather.async.tasks", timedOut, LongAdder::sum)
+                .tag("outcome", "timed_out")
+                .description("Upstream tasks whose callers stopped waiting at the timeout")
+                .register(registry);
+        Gauge.builder("weather.async.active", this, WeatherUpstreamExecutor::getActive).register(registry);
+        Gauge.builder("weather.async.queue.depth", this, WeatherUpstreamExecutor::getQueueDepth).register(registry);
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return true if tasks run on virtual threads
+     */
+    public boolean isVirtual() {
+        return pool == null;
+    }
+
+    public int getActive() {
+        return pool != null ? pool.getActiveCount() : maxInFlight - inFlight.availablePermits();
+    }
+
+    public int getQueueDepth() {
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+}
@@ -0,0 +1,370 @@
+package com.domain.weather.service;
+
+import com.domain.weather.entity.WeatherEntity;
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.jpa.WeatherRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WeatherWriteBehindPersister batches weather entity inserts off the request path.
+ * Saves are queued in a bounded queue; a single flusher thread takes up to the batch size, or whatever
+ * arrived within the flush interval, and inserts them with one saveAll in one transaction so Hibernate
+ * can send them as JDBC batches.
+ * <p>
+ * With durability FLUSHED a save returns once its batch has committed; with ENQUEUED it returns as soon
+ * as the entity is queued, and anything still queued is lost if the process dies. When the queue stays
+ * full for the enqueue timeout the caller saves the entity itself, which slows producers down to the
+ * speed of the database. On shutdown the queue is drained before the flusher stops.
+ * <p>
+ * A FLUSHED save waits at most the flush interval plus the shutdown timeout. Saves still queued when the
+ * flusher stops without draining, because it failed or did not finish within the shutdown timeout, fail
+ * rather than leave their callers waiting.
+ * <p>
+ * Once bound to a registry, queued, flushed, caller-run and failed saves and the batches are counted, and the
+ * queue depth is gauged.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherWriteBehindPersister implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherWriteBehindPersister.class);
+
+    /**
+     * When a save counts as done.
+     */
+    public enum Durability {
+        /** Once the entity is queued; faster, but queued entities are lost on a crash. */
+        ENQUEUED,
+        /** Once the batch holding the entity has committed. */
+        FLUSHED
+    }
+
+    private final WeatherRepository weatherRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long enqueueTimeoutMs;
+
+    private final long shutdownTimeoutMs;
+
+    private final long flushTimeoutNanos;
+
+    private final Durability durability;
+
+    private final BlockingQueue<PendingSave> queue;
+
+    private final Thread flusher;
+
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+
+    private final LongAdder flushed = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder callerRuns = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    @Autowired
+    public WeatherWriteBehindPersister(WeatherRepository weatherRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${weather.persist.write-behind:false}") boolean enabled,
+                                       @Value("${weather.persist.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${weather.persist.batch-size:50}") int batchSize,
+                                       @Value("${weather.persist.flush-interval-ms:200}") long flushIntervalMs,
+                                       @Value("${weather.persist.enqueue-timeout-ms:50}") long enqueueTimeoutMs,
+                                       @Value("${weather.persist.durability:flushed}") String durability,
+                                       @Value("${weather.persist.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.weatherRepository = weatherRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.enqueueTimeoutMs = Math.max(0, enqueueTimeoutMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.flushTimeoutNanos = flushIntervalNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, shutdownTimeoutMs));
+        this.durability = Durability.valueOf(durability.trim().toUpperCase(Locale.ROOT));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        if (enabled) {
+            this.running = true;
+            this.flusher = new Thread(this::runFlusher, "weather-write-behind");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * @return true if saves go through the write-behind queue, false if callers should save directly
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a weather entity for insertion.
+     * Depending on the durability setting, returns once it is queued or once its batch has committed.
+     *
+     * @param weatherEntity the entity to insert
+     * @throws WeatherException if the entity could not be saved
+     */
+    public void persist(WeatherEntity weatherEntity) throws WeatherException {
+        PendingSave pending = new PendingSave(weatherEntity);
+        boolean queued = false;
+        if (running) {
+            try {
+                queued = queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // The flusher may have stopped, and shutdown drained the queue, while this save was being offered.
+            // If it is still queued nobody will take it, so it is taken back and saved here.
+            if (queued && !running && queue.remove(pending)) {
+                queued = false;
+            }
+        }
+        if (!queued) {
+            // Backpressure: the flusher is behind (or stopped), so the caller pays for its own insert
+            callerRuns.increment();
+            saveNow(weatherEntity);
+            return;
+        }
+        enqueued.increment();
+        if (durability == Durability.FLUSHED) {
+            awaitFlush(pending);
+        }
+    }
+
+    private void saveNow(WeatherEntity weatherEntity) {
+        try {
+            weatherRepository.save(weatherEntity);
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.error("Error saving weather entity for postal code: {}", weatherEntity.getPostalCode(), e);
+            throw internalServerError();
+        }
+    }
+
+    private void awaitFlush(PendingSave pending) {
+        try {
+            pending.done.get(flushTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw internalServerError();
+        } catch (ExecutionException e) {
+            throw internalServerError();
+        } catch (TimeoutException e) {
+            logger.warn("Weather entity for postal code {} not flushed within {} ms",
+                    pending.entity.getPostalCode(), TimeUnit.NANOSECONDS.toMillis(flushTimeoutNanos));
+            throw internalServerError();
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingSave> batch = new ArrayList<>(batchSize);
+        try {
+            flushUntilStopped(batch);
+        } catch (RuntimeException | Error e) {
+            // Nothing takes from the queue any more, so new saves go to their callers and queued ones fail
+            running = false;
+            logger.error("Write-behind flusher stopped, failing {} queued weather entities", batch.size() + queue.size(), e);
+            fail(batch, e);
+            failQueued(e);
+        }
+    }
+
+    private void flushUntilStopped(List<PendingSave> batch) {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSave first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingSave next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingSave> batch) {
+        List<WeatherEntity> entities = new ArrayList<>(batch.size());
+        for (PendingSave pending : batch) {
+            entities.add(pending.entity);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> weatherRepository.saveAll(entities));
+            batches.increment();
+            flushed.add(batch.size());
+            batch.forEach(pending -> pending.done.complete(null));
+        } catch (RuntimeException e) {
+            logger.warn("Batch insert of {} weather entities failed, retrying one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::flushOne);
+        }
+    }
+
+    private void flushOne(PendingSave pending) {
+        // Ids handed out by the failed batch were rolled back with it
+        pending.entity.setId(null);
+        if (pending.entity.getWeatherData() != null) {
+            pending.entity.getWeatherData().setId(null);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> weatherRepository.save(pending.entity));
+            flushed.increment();
+            pending.done.complete(null);
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.error("Error saving weather entity for postal code: {}", pending.entity.getPostalCode(), e);
+            pending.done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops accepting new entities, drains the queue and waits for the flusher to finish,
+     * for at most the shutdown timeout.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            logger.error("Write-behind queue not drained on shutdown, {} weather entities not saved", queue.size());
+            failQueued(new IllegalStateException("write-behind queue not drained on shutdown"));
+            return;
+        }
+        // Saves that were queued while the flusher was exiting
+        List<PendingSave> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    private void failQueued(Throwable cause) {
+        List<PendingSave> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, cause);
+    }
+
+    private void fail(List<PendingSave> pendingSaves, Throwable cause) {
+        for (PendingSave pending : pendingSaves) {
+            // Saves of a batch that were already committed or failed are left as they are. Only the thread
+            // failing them completes these saves, and the count goes up before their callers are woken.
+            if (!pending.done.isDone()) {
+                failures.increment();
+                pending.done.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private static WeatherException internalServerError() {
+        return WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.write.behind.enqueued", enqueued, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.write.behind.flushed", flushed, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.write.behind.batches", batches, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.write.behind.caller.runs", callerRuns, LongAdder::sum)
+                .description("Saves made by their callers because the write-behind queue stayed full or was stopped")
+                .register(registry);
+        FunctionCounter.builder("weather.write.behind.failures", failures, LongAdder::sum).register(registry);
+        Gauge.builder("weather.write.behind.queue.depth", this, WeatherWriteBehindPersister::getQueueDepth).register(registry);
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    public long getFlushed() {
+        return flushed.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getCallerRuns() {
+        return callerRuns.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private static final class PendingSave {
+
+        private final WeatherEntity entity;
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingSave(WeatherEntity entity) {
+            this.entity = entity;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.domain.weather.utility;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * VirtualThreads gives access to JDK 21 virtual threads while the application is still compiled for Java 11.
+ * The JDK 21 API is looked up reflectively once; on an older runtime {@link #isSupported()} is false and
+ * callers keep their platform threads. That includes JDK 19 and 20, where the API exists as a preview
+ * and throws unless preview features are enabled.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = lookup(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private static final boolean SUPPORTED = probe();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JDK has virtual threads
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    private static boolean probe() {
+        if (Runtime.version().feature() < 21 || OF_VIRTUAL == null || NEW_THREAD_PER_TASK_EXECUTOR == null) {
+            return false;
+        }
+        try {
+            OF_VIRTUAL.invoke(null);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory of virtual threads named with the given prefix and a counter.
+     *
+     * @param namePrefix the thread name prefix, such as "weather-upstream-"
+     * @return the thread factory
+     * @throws UnsupportedOperationException if the running JDK has no virtual threads
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads need JDK 21 or later, running " + Runtime.version());
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread factory", unwrap(e));
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @param namePrefix the thread name prefix
+     * @return the executor
+     * @throws UnsupportedOperationException if the running JDK has no virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory factory = factory(namePrefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", unwrap(e));
+        }
+    }
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Throwable unwrap(ReflectiveOperationException e) {
+        return e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,94 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * WeatherBulkhead limits how many Weather API calls can be in flight at once, so a slow API cannot tie up
+ * every thread that reaches it. A call waits at most the maximum wait for a slot; if none frees up it fails
+ * immediately with {@link WeatherException#SERVICE_UNAVAILABLE_ERROR}.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherBulkhead implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherBulkhead.class);
+
+    private final int maxConcurrent;
+
+    private final long maxWaitMs;
+
+    private final Semaphore permits;
+
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public WeatherBulkhead(@Value("${weather.bulkhead.max-concurrent:40}") int maxConcurrent,
+                           @Value("${weather.bulkhead.max-wait-ms:100}") long maxWaitMs) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+    }
+
+    /**
+     * Runs the call once a slot is free.
+     *
+     * @param call the upstream call
+     * @param <T>  the result type
+     * @return the result of the call
+     * @throws WeatherException with {@link WeatherException#SERVICE_UNAVAILABLE_ERROR} if no slot frees up in time,
+     *                          or whatever the call throws
+     */
+    public <T> T execute(Supplier<T> call) throws WeatherException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            logger.warn("Weather API bulkhead full, {} calls in flight", maxConcurrent);
+            throw WeatherException.cached(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG);
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("weather.upstream.bulkhead.in.flight", this, WeatherBulkhead::getInFlight)
+                .description("Weather API calls currently in flight")
+                .register(registry);
+        Gauge.builder("weather.upstream.bulkhead.max", this, bulkhead -> bulkhead.maxConcurrent).register(registry);
+        FunctionCounter.builder("weather.upstream.bulkhead.rejected", rejected, LongAdder::sum).register(registry);
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,339 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * WeatherCircuitBreaker stops calling the Weather API while it is failing or slow.
+ * Outcomes of the last window-size calls are kept; once at least the minimum number of calls is recorded and
+ * the failure rate or the slow-call rate reaches its threshold, the breaker opens and calls fail immediately with
+ * {@link WeatherException#SERVICE_UNAVAILABLE_ERROR}. After the open duration it lets a few probe calls through
+ * (half-open): if they are healthy it closes again, otherwise it stays open for another open duration.
+ * <p>
+ * Only errors that say nothing about the API's health are ignored: weatherstack error responses that reject the
+ * query or the access key, and calls turned away locally by the bulkhead. Its generic request_failed error
+ * counts as a failure.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherCircuitBreaker implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherCircuitBreaker.class);
+
+    /**
+     * The breaker states.
+     */
+    public enum State {
+        /** Calls go through and their outcomes are recorded. */
+        CLOSED,
+        /** Calls are rejected until the open duration has passed. */
+        OPEN,
+        /** A limited number of probe calls go through to decide whether to close. */
+        HALF_OPEN
+    }
+
+    private final boolean enabled;
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final LongSupplier ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean[] failedCalls;
+
+    private final boolean[] slowCalls;
+
+    private int recorded;
+
+    private int next;
+
+    private int failures;
+
+    private int slow;
+
+    private volatile State state = State.CLOSED;
+
+    private volatile long openedAt;
+
+    private long generation;
+
+    private int probesStarted;
+
+    private int probesFinished;
+
+    private int probeFailures;
+
+    private int probeSlow;
+
+    private final LongAdder successfulCalls = new LongAdder();
+
+    private final LongAdder failedCallCount = new LongAdder();
+
+    private final LongAdder slowCallCount = new LongAdder();
+
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    @Autowired
+    public WeatherCircuitBreaker(@Value("${weather.breaker.enabled:true}") boolean enabled,
+                                 @Value("${weather.breaker.window-size:50}") int windowSize,
+                                 @Value("${weather.breaker.minimum-calls:20}") int minimumCalls,
+                                 @Value("${weather.breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                                 @Value("${weather.breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+                                 @Value("${weather.breaker.slow-call-duration-ms:2000}") long slowCallDurationMs,
+                                 @Value("${weather.breaker.open-duration-ms:30000}") long openDurationMs,
+                                 @Value("${weather.breaker.half-open-calls:5}") int halfOpenCalls) {
+        this(enabled, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallDurationMs,
+                openDurationMs, halfOpenCalls, System::nanoTime);
+    }
+
+    WeatherCircuitBreaker(boolean enabled, int windowSize, int minimumCalls, int failureRateThreshold,
+                          int slowCallRateThreshold, long slowCallDurationMs, long openDurationMs, int halfOpenCalls,
+                          LongSupplier ticker) {
+        this.enabled = enabled;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.ticker = ticker;
+        this.failedCalls = new boolean[this.windowSize];
+        this.slowCalls = new boolean[this.windowSize];
+    }
+
+    /**
+     * Runs the call if the breaker allows it and records how it went.
+     *
+     * @param call the upstream call
+     * @param <T>  the result type
+     * @return the result of the call
+     * @throws WeatherException with {@link WeatherException#SERVICE_UNAVAILABLE_ERROR} if the breaker is open,
+     *                          or whatever the call throws
+     */
+    public <T> T execute(Supplier<T> call) throws WeatherException {
+        return execute(call, () -> 0);
+    }
+
+    /**
+     * Runs the call if the breaker allows it and records how it went, leaving time the call spent away from
+     * the Weather API, such as waiting between retries, out of the slow-call duration.
+     *
+     * @param call      the upstream call
+     * @param idleNanos reports the time the call spent away from the Weather API
+     * @param <T>       the result type
+     * @return the result of the call
+     * @throws WeatherException with {@link WeatherException#SERVICE_UNAVAILABLE_ERROR} if the breaker is open,
+     *                          or whatever the call throws
+     */
+    public <T> T execute(Supplier<T> call, LongSupplier idleNanos) throws WeatherException {
+        if (!enabled) {
+            return call.get();
+        }
+        long permit = acquirePermission();
+        long start = ticker.getAsLong();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            // Errors count as failures too, or a half-open probe that threw one would hold its slot for good
+            if (isIgnored(e)) {
+                release(permit);
+            } else {
+                record(permit, true, isSlow(start, idleNanos));
+            }
+            throw e;
+        }
+        record(permit, false, isSlow(start, idleNanos));
+        return result;
+    }
+
+    private boolean isSlow(long start, LongSupplier idleNanos) {
+        return ticker.getAsLong() - start - idleNanos.getAsLong() > slowCallNanos;
+    }
+
+    private static boolean isIgnored(Throwable e) {
+        if (!(e instanceof WeatherException)) {
+            return false;
+        }
+        String code = ((WeatherException) e).getCode();
+        return WeatherException.INVALID_ACCESS_KEY.equals(code) || WeatherException.SERVICE_UNAVAILABLE_ERROR.equals(code)
+                || WeatherException.NOT_FOUND_ERROR.equals(code);
+    }
+
+    /**
+     * @return the generation the call was permitted in, so late results from an earlier state are dropped
+     */
+    private long acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && ticker.getAsLong() - openedAt >= openNanos) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return generation;
+            }
+            if (state == State.HALF_OPEN && probesStarted < halfOpenCalls) {
+                probesStarted++;
+                return generation;
+            }
+        } finally {
+            lock.unlock();
+        }
+        rejectedCalls.increment();
+        throw WeatherException.cached(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG);
+    }
+
+    private void release(long permit) {
+        lock.lock();
+        try {
+            if (permit == generation && state == State.HALF_OPEN) {
+                probesStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(long permit, boolean failed, boolean slowCall) {
+        if (failed) {
+            failedCallCount.increment();
+        } else {
+            successfulCalls.increment();
+        }
+        if (slowCall) {
+            slowCallCount.increment();
+        }
+        lock.lock();
+        try {
+            if (permit != generation) {
+                return;
+            }
+            if (state == State.CLOSED) {
+                recordInWindow(failed, slowCall);
+                if (recorded >= minimumCalls && isUnhealthy(failures, slow, recorded)) {
+                    transition(State.OPEN);
+                }
+            } else if (state == State.HALF_OPEN) {
+                probesFinished++;
+                probeFailures += failed ? 1 : 0;
+                probeSlow += slowCall ? 1 : 0;
+                if (isUnhealthy(probeFailures, probeSlow, probesFinished)) {
+                    transition(State.OPEN);
+                } else if (probesFinished >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordInWindow(boolean failed, boolean slowCall) {
+        if (recorded == windowSize) {
+            failures -= failedCalls[next] ? 1 : 0;
+            slow -= slowCalls[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failedCalls[next] = failed;
+        slowCalls[next] = slowCall;
+        failures += failed ? 1 : 0;
+        slow += slowCall ? 1 : 0;
+        next = (next + 1) % windowSize;
+    }
+
+    private boolean isUnhealthy(int failed, int slowCount, int calls) {
+        return failed * 100L >= (long) failureRateThreshold * calls || slowCount * 100L >= (long) slowCallRateThreshold * calls;
+    }
+
+    private void transition(State target) {
+        logger.warn("Weather API circuit breaker {} -> {} (failures {}/{}, slow {}/{})", state, target, failures, recorded, slow, recorded);
+        state = target;
+        generation++;
+        probesStarted = 0;
+        probesFinished = 0;
+        probeFailures = 0;
+        probeSlow = 0;
+        if (target == State.OPEN) {
+            openedAt = ticker.getAsLong();
+        } else if (target == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+            slow = 0;
+        }
+    }
+
+    /**
+     * Registers the breaker state, one gauge per state set to 1 for the current one, and call counters.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State each : State.values()) {
+            Gauge.builder("weather.upstream.breaker.state", this, breaker -> breaker.getState() == each ? 1 : 0)
+                    .description("Weather API circuit breaker state, 1 for the current state")
+                    .tag("state", each.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        FunctionCounter.builder("weather.upstream.breaker.calls", successfulCalls, LongAdder::sum).tag("outcome", "success").register(registry);
+        FunctionCounter.builder("weather.upstream.breaker.calls", failedCallCount, LongAdder::sum).tag("outcome", "failure").register(registry);
+        FunctionCounter.builder("weather.upstream.breaker.calls", rejectedCalls, LongAdder::sum).tag("outcome", "rejected").register(registry);
+        FunctionCounter.builder("weather.upstream.breaker.slow.calls", slowCallCount, LongAdder::sum).register(registry);
+    }
+
+    public State getState() {
+        if (state == State.OPEN && ticker.getAsLong() - openedAt >= openNanos) {
+            // Reported as half-open once probes would be let through, even before the next call arrives
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public long getSuccessfulCalls() {
+        return successfulCalls.sum();
+    }
+
+    public long getFailedCalls() {
+        return failedCallCount.sum();
+    }
+
+    public long getSlowCalls() {
+        return slowCallCount.sum();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+}
@@ -0,0 +1,246 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * WeatherGazetteer looks up US ZIP codes in a local index, to tell whether a ZIP code exists without calling
+ * the Weather API. The index is built from src/main/gazetteer/us-postal-codes.csv by
+ * WeatherGazetteerWriter at build time and memory-mapped on first use, so it costs nothing at startup and its
+ * records stay off the heap.
+ * <p>
+ * Records are sorted by ZIP code and have a fixed size, so a lookup is a binary search over the mapped file that
+ * allocates nothing. Only the ZIP codes are read; the rest of each record keeps the index a full copy of the CSV.
+ * <p>
+ * Layout, big-endian: a header of magic, version, record count and the offset of the string table; the records,
+ * each ZIP code, latitude and longitude as floats, and the string ids of city, region and time zone; then the
+ * string table, a count, the offset of each string, and the strings as an unsigned short length and UTF-8 bytes.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherGazetteer implements MeterBinder {
+
+    static final int MAGIC = 0x575A4950;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 16;
+
+    static final int RECORD_BYTES = 24;
+
+    private static final Logger logger = LogManager.getLogger(WeatherGazetteer.class);
+
+    private final Resource indexResource;
+
+    private final boolean rejectUnknown;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Index index;
+
+    private final LongAdder rejections = new LongAdder();
+
+    @Autowired
+    public WeatherGazetteer(@Value("${weather.gazetteer.index:classpath:weather-gazetteer.bin}") Resource indexResource,
+                            @Value("${weather.gazetteer.reject-unknown:false}") boolean rejectUnknown) {
+        this.indexResource = indexResource;
+        this.rejectUnknown = rejectUnknown;
+    }
+
+    /**
+     * Fails if unknown ZIP codes are rejected and the postal code is not in the index. Nothing is rejected if
+     * the index could not be loaded.
+     *
+     * @param postalCode the normalized postal code
+     * @throws WeatherException with {@link WeatherException#NOT_FOUND_ERROR} if the postal code is unknown
+     */
+    public void check(String postalCode) throws WeatherException {
+        if (!rejectUnknown) {
+            return;
+        }
+        Index current = index();
+        if (!current.isAvailable() || current.find(toKey(postalCode)) >= 0) {
+            return;
+        }
+        rejections.increment();
+        throw WeatherException.cached(WeatherException.NOT_FOUND_ERROR, WeatherException.POSTAL_CODE_NOT_FOUND_MSG);
+    }
+
+    /**
+     * @param postalCode a ZIP or ZIP+4 code
+     * @return whether the ZIP code is in the index; false if the index could not be loaded
+     */
+    public boolean contains(String postalCode) {
+        return index().find(toKey(postalCode)) >= 0;
+    }
+
+    /**
+     * @return whether the index is loaded and usable; loads it if it was not yet
+     */
+    public boolean isAvailable() {
+        return index().isAvailable();
+    }
+
+    boolean isLoaded() {
+        return index != null;
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            if (index == null) {
+                index = load();
+            }
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Index load() {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(indexPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            Index loaded = new Index(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            logger.info("Mapped {} postal codes from {} in {} ms", loaded.count, indexResource.getDescription(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Postal code index {} is not available, postal codes are not checked locally: {}",
+                    indexResource.getDescription(), e.getMessage());
+            return Index.UNAVAILABLE;
+        }
+    }
+
+    private Path indexPath() throws IOException {
+        if (indexResource.isFile()) {
+            return indexResource.getFile().toPath();
+        }
+        // Inside a jar the index is compressed and cannot be mapped, so it is copied out once
+        Path copy = Files.createTempFile("weather-gazetteer", ".bin");
+        copy.toFile().deleteOnExit();
+        try (InputStream in = indexResource.getInputStream()) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copy;
+    }
+
+    /**
+     * @return the ZIP code of a ZIP or ZIP+4 code as a number, or -1 if it is not one
+     */
+    static int toKey(String postalCode) {
+        if (postalCode == null || postalCode.length() < 5 || (postalCode.length() > 5 && postalCode.charAt(5) != '-')) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < 5; i++) {
+            char c = postalCode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.gazetteer.rejections", rejections, LongAdder::sum)
+                .description("Requests failed locally because their ZIP code is not in the postal code index")
+                .register(registry);
+        // Reports 0 until the index is first used, rather than loading it
+        Gauge.builder("weather.gazetteer.size", this, gazetteer -> gazetteer.index == null ? 0 : gazetteer.index.count)
+                .register(registry);
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * A mapped index file.
+     */
+    private static final class Index {
+
+        private static final Index UNAVAILABLE = new Index();
+
+        private final ByteBuffer buffer;
+
+        private final int count;
+
+        private Index() {
+            this.buffer = null;
+            this.count = 0;
+        }
+
+        private Index(ByteBuffer buffer) {
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IllegalStateException("not a postal code index");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("unsupported postal code index version " + buffer.getInt(4));
+            }
+            this.buffer = buffer;
+            this.count = buffer.getInt(8);
+            int stringsOffset = buffer.getInt(12);
+            if (count < 0 || (long) HEADER_BYTES + (long) count * RECORD_BYTES != stringsOffset || stringsOffset + 4L > buffer.capacity()) {
+                throw new IllegalStateException("truncated postal code index");
+            }
+        }
+
+        private boolean isAvailable() {
+            return buffer != null;
+        }
+
+        /**
+         * @return the record of the ZIP code, or -1 if it is not in the index
+         */
+        private int find(int key) {
+            if (key < 0) {
+                return -1;
+            }
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int candidate = buffer.getInt(HEADER_BYTES + middle * RECORD_BYTES);
+                if (candidate < key) {
+                    low = middle + 1;
+                } else if (candidate > key) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+    }
+}
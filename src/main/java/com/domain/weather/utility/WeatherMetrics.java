@@ -0,0 +1,148 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WeatherMetrics holds the application meters that are recorded on every request: a timer per service
+ * operation and outcome, and a counter per WeatherException code. Every meter is registered up front and
+ * kept in a field, so recording is a lookup by index and never builds tags or touches the registry.
+ * Timers publish a percentile histogram, which the Prometheus endpoint exposes as buckets.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherMetrics {
+
+    /**
+     * The lowest and highest latency histogram buckets shared by the application timers.
+     */
+    public static final Duration MIN_EXPECTED_LATENCY = Duration.ofMillis(1);
+
+    public static final Duration MAX_EXPECTED_LATENCY = Duration.ofSeconds(30);
+
+    private static final String[] EXCEPTION_CODES = {
+            WeatherException.INVALID_POSTAL_CODE_ERROR,
+            WeatherException.INVALID_USER_ERROR,
+            WeatherException.NOT_FOUND_ERROR,
+            WeatherException.INTERNAL_SERVER_ERROR,
+            WeatherException.INVALID_REQUEST_ERROR,
+            WeatherException.INVALID_ACCESS_KEY,
+            WeatherException.SERVICE_UNAVAILABLE_ERROR
+    };
+
+    /**
+     * The service operations that are timed, with the method tag they are recorded under.
+     */
+    public enum Operation {
+        GET_WEATHER("getWeather"),
+        EXPORT_WEATHER("exportWeather"),
+        SAVE_WEATHER("saveWeather"),
+        SAVE_WEATHER_BULK("saveWeatherBulk");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private final MeterRegistry registry;
+
+    private final Timer[] successTimers;
+
+    private final Timer[] errorTimers;
+
+    private final Map<String, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+    public WeatherMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Operation[] operations = Operation.values();
+        this.successTimers = new Timer[operations.length];
+        this.errorTimers = new Timer[operations.length];
+        for (Operation operation : operations) {
+            successTimers[operation.ordinal()] = serviceTimer(operation, "success");
+            errorTimers[operation.ordinal()] = serviceTimer(operation, "error");
+        }
+        for (String code : EXCEPTION_CODES) {
+            exceptionCounters.put(code, exceptionCounter(code));
+        }
+    }
+
+    /**
+     * Records a service operation that started at the given System.nanoTime() value.
+     *
+     * @param operation  the operation
+     * @param startNanos the System.nanoTime() value when the operation started
+     * @param success    whether it returned normally
+     */
+    public void recordService(Operation operation, long startNanos, boolean success) {
+        Timer timer = success ? successTimers[operation.ordinal()] : errorTimers[operation.ordinal()];
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a WeatherException reported to a client, by code.
+     *
+     * @param code the WeatherException code
+     */
+    public void countException(String code) {
+        String key = code == null ? "none" : code;
+        Counter counter = exceptionCounters.get(key);
+        if (counter == null) {
+            counter = exceptionCounters.computeIfAbsent(key, this::exceptionCounter);
+        }
+        counter.increment();
+    }
+
+    /**
+     * @return how many WeatherExceptions with the given code were counted
+     */
+    public double getExceptionCount(String code) {
+        Counter counter = exceptionCounters.get(code);
+        return counter == null ? 0 : counter.count();
+    }
+
+    /**
+     * Builds a latency timer with the shared histogram settings.
+     *
+     * @param name        the meter name
+     * @param description the meter description
+     * @return the timer builder, for tags to be added
+     */
+    public static Timer.Builder latencyTimer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_LATENCY)
+                .maximumExpectedValue(MAX_EXPECTED_LATENCY);
+    }
+
+    private Timer serviceTimer(Operation operation, String outcome) {
+        return latencyTimer("weather.service.calls", "Time spent in WeatherService operations")
+                .tag("method", operation.getTag())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter exceptionCounter(String code) {
+        return Counter.builder("weather.exceptions")
+                .description("WeatherExceptions reported to clients, by code")
+                .tag("code", code)
+                .register(registry);
+    }
+}
@@ -0,0 +1,185 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * WeatherNegativeCache remembers, for a short TTL, the postal codes the Weather API found no weather for. Postal
+ * codes can pass validation and still not exist, and clients tend to retry them in a loop; while a postal code is
+ * cached, requests for it fail locally with {@link WeatherException#NOT_FOUND_ERROR} instead of spending the rate
+ * limit and quota on a call that fails the same way. The TTL is short because weatherstack reports a failed
+ * lookup the same way for an unknown location as for a transient failure on its side.
+ * <p>
+ * The cache is bounded by entry count. Every entry lives for the same TTL, so entries are kept in the order they
+ * were added, which is also the order they expire in, and the oldest go first when the cache is full.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherNegativeCache implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherNegativeCache.class);
+
+    private final long ttlNanos;
+
+    private final int maxEntries;
+
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<String, Long> expiries = new LinkedHashMap<>();
+
+    // A lock rather than synchronized, so virtual threads waiting for it do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder additions = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    @Autowired
+    public WeatherNegativeCache(@Value("${weather.negative-cache.ttl-seconds:60}") long ttlSeconds,
+                                @Value("${weather.negative-cache.max-entries:10000}") int maxEntries) {
+        this(ttlSeconds, maxEntries, System::nanoTime);
+    }
+
+    WeatherNegativeCache(long ttlSeconds, int maxEntries, LongSupplier ticker) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ticker = ticker;
+    }
+
+    /**
+     * Fails if the Weather API found no weather for the postal code within the TTL.
+     * A TTL of zero disables the cache.
+     *
+     * @param postalCode the normalized postal code
+     * @throws WeatherException with {@link WeatherException#NOT_FOUND_ERROR} if the postal code is cached
+     */
+    public void check(String postalCode) throws WeatherException {
+        if (ttlNanos <= 0 || postalCode == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            Long expiresAt = expiries.get(postalCode);
+            if (expiresAt == null) {
+                return;
+            }
+            if (ticker.getAsLong() - expiresAt >= 0) {
+                expiries.remove(postalCode);
+                expirations.increment();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        hits.increment();
+        throw WeatherException.cached(WeatherException.NOT_FOUND_ERROR, WeatherException.POSTAL_CODE_NOT_FOUND_MSG);
+    }
+
+    /**
+     * Caches a postal code the Weather API found no weather for, dropping expired entries and, if the cache is
+     * full, the oldest ones.
+     *
+     * @param postalCode the normalized postal code
+     */
+    public void add(String postalCode) {
+        if (ttlNanos <= 0 || postalCode == null) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        lock.lock();
+        try {
+            // Removed first, so a postal code added again moves to the end of the expiry order
+            expiries.remove(postalCode);
+            expiries.put(postalCode, now + ttlNanos);
+            additions.increment();
+
+            Iterator<Map.Entry<String, Long>> eldest = expiries.entrySet().iterator();
+            while (eldest.hasNext()) {
+                long expiresAt = eldest.next().getValue();
+                if (now - expiresAt >= 0) {
+                    expirations.increment();
+                } else if (expiries.size() > maxEntries) {
+                    evictions.increment();
+                } else {
+                    break;
+                }
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Weather API found no weather for postal code {}, failing it locally for {} s",
+                postalCode, TimeUnit.NANOSECONDS.toSeconds(ttlNanos));
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            expiries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.negative.cache.hits", hits, LongAdder::sum)
+                .description("Requests failed locally because the Weather API recently found no weather for their postal code")
+                .register(registry);
+        FunctionCounter.builder("weather.negative.cache.additions", additions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.negative.cache.evictions", evictions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.negative.cache.expirations", expirations, LongAdder::sum).register(registry);
+        Gauge.builder("weather.negative.cache.size", this, WeatherNegativeCache::getSize).register(registry);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getAdditions() {
+        return additions.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return expiries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.domain.weather.utility;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * WeatherPayloadSampler logs request and response payloads at DEBUG for a sample of calls instead of every one,
+ * and cuts each logged payload at a maximum length. Payloads are written as JSON; serialization is abandoned
+ * shortly after the limit is reached, so a large page of history costs about as much to log as a small one.
+ * When DEBUG is off, or the call is not sampled, nothing is serialized or allocated.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherPayloadSampler {
+
+    private static final ObjectWriter PAYLOAD_WRITER = new ObjectMapper().findAndRegisterModules().writer();
+
+    private final double sampleRate;
+
+    private final int maxChars;
+
+    @Autowired
+    public WeatherPayloadSampler(@Value("${weather.logging.payload.sample-rate:0.01}") double sampleRate,
+                                 @Value("${weather.logging.payload.max-chars:1024}") int maxChars) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+        this.maxChars = Math.max(16, maxChars);
+    }
+
+    /**
+     * Logs a payload at DEBUG if this call is sampled.
+     *
+     * @param logger   the logger to write to
+     * @param message  the message, with a placeholder for the argument and then one for the payload
+     * @param argument the argument that identifies the payload, such as a postal code
+     * @param payload  the payload
+     */
+    public void debug(Logger logger, String message, Object argument, Object payload) {
+        if (!logger.isDebugEnabled() || !isSampled()) {
+            return;
+        }
+        logger.debug(message, argument, toJson(payload));
+    }
+
+    boolean isSampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * @return the payload as JSON, cut at the maximum length
+     */
+    String toJson(Object payload) {
+        BoundedWriter writer = new BoundedWriter(maxChars);
+        try {
+            PAYLOAD_WRITER.writeValue(writer, payload);
+        } catch (IOException | RuntimeException e) {
+            if (!writer.truncated) {
+                return writer.text + " (not serializable: " + e.getClass().getSimpleName() + ")";
+            }
+        }
+        return writer.truncated ? writer.text + "... (truncated at " + maxChars + " chars)" : writer.text.toString();
+    }
+
+    /**
+     * Collects at most the given number of characters, then fails the write to stop serialization.
+     */
+    private static final class BoundedWriter extends Writer {
+
+        private final StringBuilder text;
+
+        private final int limit;
+
+        private boolean truncated;
+
+        private BoundedWriter(int limit) {
+            this.text = new StringBuilder(Math.min(limit, 256));
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int room = limit - text.length();
+            if (length > room) {
+                text.append(chars, offset, room);
+                truncated = true;
+                throw new LimitReachedException();
+            }
+            text.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Stops serialization once the limit is reached. Thrown only for sampled payloads, without a stack trace.
+     */
+    private static final class LimitReachedException extends IOException {
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * WeatherRateLimiter paces outbound Weather API calls to the plan's per-minute rate and monthly quota.
+ * Calls take a token from a bucket that refills at the per-minute rate and holds at most the burst size.
+ * When no token is free a call queues for one, up to the maximum wait. Queued calls are admitted round-robin
+ * by user, so one user's burst cannot starve everyone else. A call that times out in the queue, or arrives
+ * once the monthly quota is used up, fails with {@link WeatherException#SERVICE_UNAVAILABLE_ERROR}.
+ * A call's retries and hedges each take a token of their own through {@link #tryAcquire()}, which never waits.
+ * <p>
+ * With quota pacing on, the refill rate is also capped at the quota left divided by the minutes left in the
+ * month (UTC), so the budget is spread over the month instead of running out early. Quota use is counted in
+ * memory and starts from zero on every restart.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherRateLimiter implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherRateLimiter.class);
+
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private static final String BACKGROUND_USER = "";
+
+    private final boolean enabled;
+
+    private final double ratePerMinute;
+
+    private final int burst;
+
+    private final long maxWaitNanos;
+
+    private final long monthlyQuota;
+
+    private final boolean paceQuota;
+
+    private final LongSupplier ticker;
+
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition admitted = lock.newCondition();
+
+    private final Map<String, ArrayDeque<Object>> waiting = new HashMap<>();
+
+    private final ArrayDeque<String> turns = new ArrayDeque<>();
+
+    private int waitingCount;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    private YearMonth quotaMonth;
+
+    private long quotaUsed;
+
+    private final LongAdder admittedCalls = new LongAdder();
+
+    private final LongAdder queuedCalls = new LongAdder();
+
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    @Autowired
+    public WeatherRateLimiter(@Value("${weather.ratelimit.enabled:true}") boolean enabled,
+                              @Value("${weather.ratelimit.per-minute:60}") double ratePerMinute,
+                              @Value("${weather.ratelimit.burst:10}") int burst,
+                              @Value("${weather.ratelimit.max-wait-ms:2000}") long maxWaitMs,
+                              @Value("${weather.ratelimit.monthly-quota:0}") long monthlyQuota,
+                              @Value("${weather.ratelimit.pace-quota:true}") boolean paceQuota) {
+        this(enabled, ratePerMinute, burst, maxWaitMs, monthlyQuota, paceQuota, System::nanoTime, Clock.systemUTC());
+    }
+
+    WeatherRateLimiter(boolean enabled, double ratePerMinute, int burst, long maxWaitMs, long monthlyQuota,
+                       boolean paceQuota, LongSupplier ticker, Clock clock) {
+        this.enabled = enabled;
+        this.ratePerMinute = Math.max(0, ratePerMinute);
+        this.burst = Math.max(1, burst);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.monthlyQuota = Math.max(0, monthlyQuota);
+        this.paceQuota = paceQuota;
+        this.ticker = ticker;
+        this.clock = clock;
+        this.tokens = this.burst;
+        this.lastRefill = ticker.getAsLong();
+        this.quotaMonth = YearMonth.now(clock);
+    }
+
+    /**
+     * Runs the call once it is admitted. A call that is turned away before reaching the Weather API
+     * (breaker open, bulkhead full) is not counted against the monthly quota.
+     *
+     * @param user the user the call is made for, or null for background calls
+     * @param call the upstream call
+     * @param <T>  the result type
+     * @return the result of the call
+     * @throws WeatherException with {@link WeatherException#SERVICE_UNAVAILABLE_ERROR} if the call is not admitted,
+     *                          or whatever the call throws
+     */
+    public <T> T execute(String user, Supplier<T> call) throws WeatherException {
+        if (!enabled) {
+            return call.get();
+        }
+        acquire(user == null ? BACKGROUND_USER : user);
+        try {
+            return call.get();
+        } catch (WeatherException e) {
+            if (WeatherException.SERVICE_UNAVAILABLE_ERROR.equals(e.getCode())) {
+                refundQuota();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a token for an extra attempt of an admitted call, a retry or a hedge, if one is free now.
+     * Extra attempts never wait and never go ahead of queued calls, so they only use spare capacity.
+     * The attempt is counted against the monthly quota.
+     *
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        lock.lock();
+        try {
+            rollQuotaMonth();
+            if (monthlyQuota > 0 && quotaUsed >= monthlyQuota) {
+                return false;
+            }
+            refill();
+            if (turns.isEmpty() && tokens >= 1) {
+                take();
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(String user) {
+        long deadline = ticker.getAsLong() + maxWaitNanos;
+        lock.lock();
+        try {
+            checkQuota();
+            refill();
+            if (turns.isEmpty() && tokens >= 1) {
+                take();
+                return;
+            }
+
+            Object ticket = new Object();
+            enqueue(user, ticket);
+            queuedCalls.increment();
+            try {
+                while (true) {
+                    refill();
+                    boolean next = isNext(user, ticket);
+                    if (next && tokens >= 1) {
+                        dequeue(user);
+                        admitted.signalAll();
+                        checkQuota();
+                        take();
+                        return;
+                    }
+                    long remaining = deadline - ticker.getAsLong();
+                    if (remaining <= 0) {
+                        remove(user, ticket);
+                        admitted.signalAll();
+                        throw reject("no token within " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+                    }
+                    admitted.awaitNanos(next ? Math.min(remaining, nanosUntilToken()) : remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                remove(user, ticket);
+                admitted.signalAll();
+                throw reject("interrupted while queued");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkQuota() {
+        rollQuotaMonth();
+        if (monthlyQuota > 0 && quotaUsed >= monthlyQuota) {
+            throw reject("monthly quota of " + monthlyQuota + " calls used up");
+        }
+    }
+
+    private void enqueue(String user, Object ticket) {
+        ArrayDeque<Object> queue = waiting.get(user);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            waiting.put(user, queue);
+            turns.addLast(user);
+        }
+        queue.addLast(ticket);
+        waitingCount++;
+    }
+
+    private boolean isNext(String user, Object ticket) {
+        return user.equals(turns.peekFirst()) && waiting.get(user).peekFirst() == ticket;
+    }
+
+    /**
+     * Removes the user's first queued call and moves the user to the back of the rotation.
+     */
+    private void dequeue(String user) {
+        ArrayDeque<Object> queue = waiting.get(user);
+        queue.pollFirst();
+        waitingCount--;
+        turns.pollFirst();
+        if (queue.isEmpty()) {
+            waiting.remove(user);
+        } else {
+            turns.addLast(user);
+        }
+    }
+
+    private void remove(String user, Object ticket) {
+        ArrayDeque<Object> queue = waiting.get(user);
+        if (queue != null && queue.remove(ticket)) {
+            waitingCount--;
+            if (queue.isEmpty()) {
+                waiting.remove(user);
+                turns.remove(user);
+            }
+        }
+    }
+
+    private void take() {
+        tokens -= 1;
+        quotaUsed++;
+        admittedCalls.increment();
+    }
+
+    private void refundQuota() {
+        lock.lock();
+        try {
+            if (quotaUsed > 0) {
+                quotaUsed--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = ticker.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * effectiveRatePerMinute() / NANOS_PER_MINUTE);
+        lastRefill = now;
+    }
+
+    private long nanosUntilToken() {
+        double rate = effectiveRatePerMinute();
+        if (rate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) * NANOS_PER_MINUTE / rate));
+    }
+
+    private double effectiveRatePerMinute() {
+        if (!paceQuota || monthlyQuota <= 0) {
+            return ratePerMinute;
+        }
+        return Math.min(ratePerMinute, evenRatePerMinute());
+    }
+
+    /**
+     * @return the rate that would use up exactly the remaining quota by the end of the month
+     */
+    private double evenRatePerMinute() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime monthEnd = quotaMonth.plusMonths(1).atDay(1).atStartOfDay();
+        double minutesLeft = Math.max(1, Duration.between(now, monthEnd).toSeconds() / 60.0);
+        return Math.max(0, monthlyQuota - quotaUsed) / minutesLeft;
+    }
+
+    private void rollQuotaMonth() {
+        YearMonth month = YearMonth.now(clock);
+        if (!month.equals(quotaMonth)) {
+            logger.info("New quota month {}, {} calls used in {}", month, quotaUsed, quotaMonth);
+            quotaMonth = month;
+            quotaUsed = 0;
+        }
+    }
+
+    private WeatherException reject(String reason) {
+        rejectedCalls.increment();
+        logger.warn("Weather API call not admitted: {}", reason);
+        return WeatherException.cached(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("weather.upstream.quota.used", this, WeatherRateLimiter::getQuotaUsed)
+                .description("Weather API calls made this month")
+                .register(registry);
+        Gauge.builder("weather.upstream.quota.remaining", this, WeatherRateLimiter::getQuotaRemaining)
+                .description("Weather API calls left in this month's quota, -1 if unlimited")
+                .register(registry);
+        Gauge.builder("weather.upstream.quota.even.rate", this, WeatherRateLimiter::getEvenRatePerMinute)
+                .description("Calls per minute that would spend the remaining quota evenly over the month, -1 if unlimited")
+                .baseUnit("calls/min")
+                .register(registry);
+        Gauge.builder("weather.upstream.ratelimit.tokens", this, WeatherRateLimiter::getTokens).register(registry);
+        Gauge.builder("weather.upstream.ratelimit.waiting", this, WeatherRateLimiter::getWaiting).register(registry);
+        FunctionCounter.builder("weather.upstream.ratelimit.calls", admittedCalls, LongAdder::sum).tag("outcome", "admitted").register(registry);
+        FunctionCounter.builder("weather.upstream.ratelimit.calls", rejectedCalls, LongAdder::sum).tag("outcome", "rejected").register(registry);
+        FunctionCounter.builder("weather.upstream.ratelimit.queued", queuedCalls, LongAdder::sum).register(registry);
+    }
+
+    public long getQuotaUsed() {
+        lock.lock();
+        try {
+            rollQuotaMonth();
+            return quotaUsed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getQuotaRemaining() {
+        return monthlyQuota > 0 ? Math.max(0, monthlyQuota - getQuotaUsed()) : -1;
+    }
+
+    public double getEvenRatePerMinute() {
+        if (monthlyQuota <= 0) {
+            return -1;
+        }
+        lock.lock();
+        try {
+            rollQuotaMonth();
+            return evenRatePerMinute();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getTokens() {
+        lock.lock();
+        try {
+            refill();
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waitingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAdmittedCalls() {
+        return admittedCalls.sum();
+    }
+
+    public long getQueuedCalls() {
+        return queuedCalls.sum();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+}
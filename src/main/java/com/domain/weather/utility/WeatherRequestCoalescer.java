@@ -0,0 +1,116 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.model.WeatherResponseDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * WeatherRequestCoalescer de-duplicates concurrent upstream fetches for the same postal code.
+ * The first caller for a postal code performs the fetch; callers arriving while it is in flight
+ * wait for and share its result instead of issuing their own request.
+ * <p>
+ * Once bound to a registry, the fetches that went upstream and the callers that shared one are counted, and the
+ * postal codes with a fetch in flight are gauged.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherRequestCoalescer implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherRequestCoalescer.class);
+
+    private final ConcurrentMap<String, CompletableFuture<WeatherResponseDTO>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder upstreamCalls = new LongAdder();
+
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    /**
+     * Runs the fetch for the given postal code, or joins the one already in flight.
+     *
+     * @param postalCode the postal code the fetch is keyed by
+     * @param fetch      the upstream fetch to run if none is in flight
+     * @return the weather response shared by all concurrent callers
+     * @throws WeatherException if the shared fetch fails
+     */
+    public WeatherResponseDTO execute(String postalCode, Supplier<WeatherResponseDTO> fetch) throws WeatherException {
+        CompletableFuture<WeatherResponseDTO> call = new CompletableFuture<>();
+        CompletableFuture<WeatherResponseDTO> existing = inFlight.putIfAbsent(postalCode, call);
+        if (existing != null) {
+            coalescedCalls.increment();
+            logger.debug("Joining in-flight weather fetch for postal code: {}", postalCode);
+            return await(existing);
+        }
+
+        upstreamCalls.increment();
+        try {
+            WeatherResponseDTO response = fetch.get();
+            call.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            // Errors too, or callers joined to this fetch would wait forever
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(postalCode, call);
+        }
+    }
+
+    private static WeatherResponseDTO await(CompletableFuture<WeatherResponseDTO> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.coalescer.upstream.calls", upstreamCalls, LongAdder::sum)
+                .description("Weather fetches that went upstream")
+                .register(registry);
+        FunctionCounter.builder("weather.coalescer.coalesced.calls", coalescedCalls, LongAdder::sum)
+                .description("Weather fetches that shared another caller's in-flight fetch")
+                .register(registry);
+        Gauge.builder("weather.coalescer.in.flight", this, WeatherRequestCoalescer::getInFlight).register(registry);
+    }
+
+    /**
+     * @return the number of fetches that actually went upstream
+     */
+    public long getUpstreamCalls() {
+        return upstreamCalls.sum();
+    }
+
+    /**
+     * @return the number of callers that shared another caller's in-flight fetch
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.sum();
+    }
+
+    /**
+     * @return the number of postal codes with a fetch currently in flight
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
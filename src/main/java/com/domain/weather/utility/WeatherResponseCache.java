@@ -0,0 +1,466 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.model.CurrentDTO;
+import com.domain.weather.model.LocationDTO;
+import com.domain.weather.model.WeatherResponseDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * WeatherResponseCache is a size-bounded, TTL-based LRU cache of upstream weather responses keyed by postal code.
+ * The least recently used entries are evicted when either the entry count or the estimated memory footprint
+ * exceeds its limit.
+ * <p>
+ * An entry is fresh for the TTL. For up to the maximum staleness after that it is still served, while a
+ * background refresh replaces it; beyond that it is never served. The most requested postal codes are also
+ * refreshed ahead of time once they enter the refresh window before their TTL ends.
+ * <p>
+ * Once bound to a registry, hits, stale hits, misses, evictions, expirations and refreshes are counted, and the
+ * entry count and estimated size are gauged.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Component
+public class WeatherResponseCache implements MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WeatherResponseCache.class);
+
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final long ttlNanos;
+
+    private final long maxStaleNanos;
+
+    private final long refreshWindowNanos;
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final int refreshTopN;
+
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // A lock rather than synchronized, so virtual threads waiting for it do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long totalBytes;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final ScheduledExecutorService refreshScheduler;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder staleHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    private final LongAdder refreshes = new LongAdder();
+
+    private final LongAdder refreshFailures = new LongAdder();
+
+    @Autowired
+    public WeatherResponseCache(@Value("${weather.cache.ttl-seconds:300}") long ttlSeconds,
+                                @Value("${weather.cache.max-entries:10000}") int maxEntries,
+                                @Value("${weather.cache.max-bytes:16777216}") long maxBytes,
+                                @Value("${weather.cache.max-stale-seconds:0}") long maxStaleSeconds,
+                                @Value("${weather.cache.refresh-window-seconds:0}") long refreshWindowSeconds,
+                                @Value("${weather.cache.refresh-top-n:0}") int refreshTopN,
+                                @Value("${weather.cache.refresh-concurrency:2}") int refreshConcurrency,
+                                @Value("${weather.cache.refresh-interval-seconds:10}") long refreshIntervalSeconds) {
+        this(ttlSeconds, maxEntries, maxBytes, maxStaleSeconds, refreshWindowSeconds, refreshTopN, refreshConcurrency,
+                refreshIntervalSeconds, System::nanoTime);
+    }
+
+    public WeatherResponseCache(long ttlSeconds, int maxEntries, long maxBytes) {
+        this(ttlSeconds, maxEntries, maxBytes, 0, 0, 0, 1, 0, System::nanoTime);
+    }
+
+    WeatherResponseCache(long ttlSeconds, int maxEntries, long maxBytes, LongSupplier ticker) {
+        this(ttlSeconds, maxEntries, maxBytes, 0, 0, 0, 1, 0, ticker);
+    }
+
+    WeatherResponseCache(long ttlSeconds, int maxEntries, long maxBytes, long maxStaleSeconds, long refreshWindowSeconds,
+                         int refreshTopN, int refreshConcurrency, long refreshIntervalSeconds, LongSupplier ticker) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxStaleNanos = TimeUnit.SECONDS.toNanos(maxStaleSeconds);
+        this.refreshWindowNanos = Math.min(TimeUnit.SECONDS.toNanos(refreshWindowSeconds), ttlNanos);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.refreshTopN = refreshTopN;
+        this.ticker = ticker;
+        this.refreshExecutor = new ThreadPoolExecutor(refreshConcurrency, refreshConcurrency, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(refreshConcurrency, refreshTopN)), daemonThreads("weather-cache-refresh"));
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+        if (ttlNanos > 0 && refreshTopN > 0 && refreshWindowNanos > 0 && refreshIntervalSeconds > 0) {
+            this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("weather-cache-refresh-ahead"));
+            this.refreshScheduler.scheduleWithFixedDelay(this::refreshAhead, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.refreshScheduler = null;
+        }
+    }
+
+    /**
+     * Returns the cached response for the postal code if it is still servable, otherwise loads,
+     * caches and returns a new one. A stale response triggers a background refresh.
+     * A TTL of zero disables caching.
+     *
+     * @param postalCode the normalized postal code
+     * @param loader     loads the response from upstream on a miss or refresh
+     * @return the weather response
+     * @throws WeatherException if the loader fails on a miss
+     */
+    public WeatherResponseDTO get(String postalCode, Function<String, WeatherResponseDTO> loader) throws WeatherException {
+        return get(postalCode, loader, loader);
+    }
+
+    /**
+     * Returns the cached response for the postal code if it is still servable, otherwise loads,
+     * caches and returns a new one. Background refreshes of the entry, stale or ahead of time,
+     * use the refresh loader, so they are not made on behalf of the caller that missed.
+     * A TTL of zero disables caching.
+     *
+     * @param postalCode    the normalized postal code
+     * @param loader        loads the response from upstream on a miss
+     * @param refreshLoader loads the response from upstream on a background refresh
+     * @return the weather response
+     * @throws WeatherException if the loader fails on a miss
+     */
+    public WeatherResponseDTO get(String postalCode, Function<String, WeatherResponseDTO> loader,
+                                  Function<String, WeatherResponseDTO> refreshLoader) throws WeatherException {
+        if (ttlNanos <= 0) {
+            return loader.apply(postalCode);
+        }
+        Entry entry = getIfServable(postalCode);
+        if (entry != null) {
+            entry.requests.incrementAndGet();
+            if (ticker.getAsLong() - entry.loadedAt > ttlNanos) {
+                staleHits.increment();
+                refreshAsync(postalCode, entry.loader);
+            } else {
+                hits.increment();
+            }
+            return entry.response;
+        }
+        misses.increment();
+        WeatherResponseDTO loaded = loader.apply(postalCode);
+        put(postalCode, loaded, refreshLoader, 1);
+        return loaded;
+    }
+
+    private Entry getIfServable(String postalCode) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(postalCode);
+            if (entry == null) {
+                return null;
+            }
+            if (ticker.getAsLong() - entry.loadedAt > ttlNanos + maxStaleNanos) {
+                remove(postalCode);
+                expirations.increment();
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String postalCode, WeatherResponseDTO response,
+                     Function<String, WeatherResponseDTO> loader, long requests) {
+        if (response == null) {
+            return;
+        }
+        Entry entry = new Entry(response, loader, ticker.getAsLong(), estimateSize(postalCode, response), requests);
+        if (entry.bytes > maxBytes) {
+            logger.warn("Weather response for postal code {} is larger than the cache limit, not caching", postalCode);
+            return;
+        }
+        lock.lock();
+        try {
+            Entry previous = entries.put(postalCode, entry);
+            if (previous != null) {
+                totalBytes -= previous.bytes;
+            }
+            totalBytes += entry.bytes;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().bytes;
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String postalCode) {
+        Entry removed = entries.remove(postalCode);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+        }
+    }
+
+    /**
+     * Submits a background refresh of the postal code unless one is already running or queued.
+     */
+    private void refreshAsync(String postalCode, Function<String, WeatherResponseDTO> loader) {
+        if (!refreshing.add(postalCode)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(postalCode, loader));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(postalCode);
+            logger.debug("Refresh queue full, skipping refresh of postal code: {}", postalCode);
+        }
+    }
+
+    private void refresh(String postalCode, Function<String, WeatherResponseDTO> loader) {
+        try {
+            WeatherResponseDTO response = loader.apply(postalCode);
+            long requests;
+            lock.lock();
+            try {
+                Entry current = entries.get(postalCode);
+                requests = current == null ? 0 : current.requests.get();
+            } finally {
+                lock.unlock();
+            }
+            put(postalCode, response, loader, requests);
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            logger.warn("Background refresh failed for postal code {}: {}", postalCode, e.getMessage());
+        } finally {
+            refreshing.remove(postalCode);
+        }
+    }
+
+    /**
+     * Refreshes the most requested entries that are within the refresh window of expiring.
+     * Request counts are halved on every pass so popularity follows recent traffic.
+     */
+    void refreshAhead() {
+        try {
+            long now = ticker.getAsLong();
+            List<Map.Entry<String, Entry>> candidates = new ArrayList<>();
+            lock.lock();
+            try {
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    if (now - entry.loadedAt >= ttlNanos - refreshWindowNanos && entry.requests.get() > 0) {
+                        candidates.add(Map.entry(mapEntry.getKey(), entry));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            candidates.sort(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().requests.get()).reversed());
+            for (int i = 0; i < candidates.size() && i < refreshTopN; i++) {
+                refreshAsync(candidates.get(i).getKey(), candidates.get(i).getValue().loader);
+            }
+            lock.lock();
+            try {
+                for (Entry entry : entries.values()) {
+                    entry.requests.updateAndGet(count -> count / 2);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Refresh-ahead pass failed", e);
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.cache.hits", hits, LongAdder::sum)
+                .description("Weather lookups served from a fresh cache entry")
+                .register(registry);
+        FunctionCounter.builder("weather.cache.stale.hits", staleHits, LongAdder::sum)
+                .description("Weather lookups served from a stale cache entry while it is refreshed")
+                .register(registry);
+        FunctionCounter.builder("weather.cache.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.cache.evictions", evictions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.cache.expirations", expirations, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.cache.refreshes", refreshes, LongAdder::sum).register(registry);
+        FunctionCounter.builder("weather.cache.refresh.failures", refreshFailures, LongAdder::sum).register(registry);
+        Gauge.builder("weather.cache.size", this, WeatherResponseCache::getSize).register(registry);
+        Gauge.builder("weather.cache.bytes", this, WeatherResponseCache::getEstimatedBytes)
+                .description("Estimated memory held by cached weather responses")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEstimatedBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Roughly estimates the retained heap size of a cached response.
+     */
+    private static long estimateSize(String postalCode, WeatherResponseDTO response) {
+        long bytes = ENTRY_OVERHEAD_BYTES + sizeOf(postalCode);
+        LocationDTO location = response.getLocation();
+        if (location != null) {
+            bytes += sizeOf(location.getName()) + sizeOf(location.getCountry()) + sizeOf(location.getRegion())
+                    + sizeOf(location.getLat()) + sizeOf(location.getLon()) + sizeOf(location.getTimezone_id())
+                    + sizeOf(location.getLocaltime()) + sizeOf(location.getUtc_offset());
+        }
+        CurrentDTO current = response.getCurrent();
+        if (current != null) {
+            bytes += sizeOf(current.getObservation_time()) + sizeOf(current.getWind_dir()) + sizeOf(current.getIs_day())
+                    + sizeOf(current.getWeather_icons()) + sizeOf(current.getWeather_descriptions());
+        }
+        return bytes;
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    private static long sizeOf(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long bytes = STRING_OVERHEAD_BYTES;
+        for (String value : values) {
+            bytes += sizeOf(value);
+        }
+        return bytes;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Entry {
+        private final WeatherResponseDTO response;
+        private final Function<String, WeatherResponseDTO> loader;
+        private final long loadedAt;
+        private final long bytes;
+        private final AtomicLong requests;
+
+        private Entry(WeatherResponseDTO response, Function<String, WeatherResponseDTO> loader, long loadedAt, long bytes, long requests) {
+            this.response = response;
+            this.loader = loader;
+            this.loadedAt = loadedAt;
+            this.bytes = bytes;
+            this.requests = new AtomicLong(requests);
+        }
+    }
+}
@@ -4,16 +4,31 @@ import com.domain.weather.entity.WeatherDetails;
 import com.domain.weather.entity.WeatherEntity;
 import com.domain.weather.exception.WeatherException;
 import com.domain.weather.model.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.util.Strings;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Pattern;
-
-import static com.domain.weather.exception.WeatherException.INTERNAL_SERVER_ERROR;
+import java.util.Locale;
 
 /**
  * WeatherUtility is a utility class that provides various utility methods for weather-related operations.
@@ -26,22 +41,54 @@ import static com.domain.weather.exception.WeatherException.INTERNAL_SERVER_ERRO
  */
 public class WeatherUtility {
 
-    private static final String US_POSTAL_CODE_FORMAT = "^[0-9]{5}(?:-[0-9]{4})?$";
+    private static final Logger logger = LogManager.getLogger(WeatherUtility.class);
+
+    // weatherstack error code for a query it could not answer
+    private static final int MISSING_QUERY_CODE = 601;
+
+    // weatherstack's generic failure; it only means the query had no answer when its message says so
+    private static final int REQUEST_FAILED_CODE = 615;
+
+    private static final String NO_RESULTS = "no result";
+
+    // Shared, thread-safe mapper and readers; weatherstack sends many fields the DTOs do not map
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
 
-    private static final String NAME_FORMAT = "^[A-Za-z]+([ '-][A-Za-z]+)*$";
+    private static final ObjectReader REQUEST_READER = OBJECT_MAPPER.readerFor(WeatherResponseDTO.RequestDTO.class);
+
+    private static final ObjectReader LOCATION_READER = OBJECT_MAPPER.readerFor(LocationDTO.class);
+
+    private static final ObjectReader CURRENT_READER = OBJECT_MAPPER.readerFor(CurrentDTO.class);
+
+    // The export flushes once at the end, not after every row
+    private static final ObjectWriter HISTORY_WRITER = OBJECT_MAPPER.writerFor(WeatherSummaryDTO.WeatherHistory.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
 
     /**
      * Validates the postal code format.
      *
      * @param postalCode the postal code to validate
      * @return true if the postal code is valid, false otherwise
+     * @see WeatherValidators#isUsPostalCode(String)
      */
     public static boolean validatePostalCode(String postalCode) {
-        Pattern pattern = Pattern.compile(US_POSTAL_CODE_FORMAT);
-        if (Strings.isBlank(postalCode) || !pattern.matcher(postalCode).matches()) {
-            return false;
+        return WeatherValidators.isUsPostalCode(postalCode);
+    }
+
+    /**
+     * Normalizes a postal code for use as a lookup key, collapsing ZIP+4 codes to their ZIP5 prefix.
+     *
+     * @param postalCode the postal code to normalize
+     * @return the normalized postal code
+     */
+    public static String normalizePostalCode(String postalCode) {
+        if (postalCode == null) {
+            return null;
         }
-        return true;
+        String trimmed = postalCode.trim();
+        return validatePostalCode(trimmed) ? trimmed.substring(0, 5) : trimmed;
     }
 
     /**
@@ -49,13 +96,10 @@ public class WeatherUtility {
      *
      * @param user the user to validate
      * @return true if the user is valid, false otherwise
+     * @see WeatherValidators#isName(String)
      */
     public static boolean validateUser(String user) {
-        Pattern pattern = Pattern.compile(NAME_FORMAT);
-        if (Strings.isBlank(user) || !pattern.matcher(user).matches()) {
-            return false;
-        }
-        return true;
+        return WeatherValidators.isName(user);
     }
 
     /**
@@ -78,11 +122,11 @@ public class WeatherUtility {
      */
     public static WeatherException createInvalidRequestException(String user, String postalCode) {
         if (Strings.isNotBlank(user)) {
-            return new WeatherException(WeatherException.INVALID_USER_ERROR, WeatherException.INVALID_USER_MSG, LocalDateTime.now());
+            return WeatherException.cached(WeatherException.INVALID_USER_ERROR, WeatherException.INVALID_USER_MSG);
         } else if (Strings.isNotBlank(postalCode)) {
-            return new WeatherException(WeatherException.INVALID_POSTAL_CODE_ERROR, WeatherException.INVALID_POSTAL_CODE_MSG, LocalDateTime.now());
+            return WeatherException.cached(WeatherException.INVALID_POSTAL_CODE_ERROR, WeatherException.INVALID_POSTAL_CODE_MSG);
         } else {
-            return new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now());
+            return WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
         }
     }
 
@@ -164,25 +208,105 @@ public class WeatherUtility {
     /**
      * Fetches weather details from the API.
      *
+     * @param weatherWebClient the client used to call the Weather API
      * @param weatherRequestDTO the weather request to fetch weather details for
      * @return the weather response
      * @throws WeatherException if there is an error with the request or retrieving the weather data
      */
-    public static WeatherResponseDTO fetchWeatherFromAPI(WeatherRequestDTO weatherRequestDTO) throws  WeatherException {
-        String weatherResponse = WeatherWebClient.CallWeatherAPI(weatherRequestDTO.getPostalCode());
-        try {
-            // Create ObjectMapper instance
-            ObjectMapper objectMapper = new ObjectMapper();
+    public static WeatherResponseDTO fetchWeatherFromAPI(WeatherWebClient weatherWebClient, WeatherRequestDTO weatherRequestDTO) throws  WeatherException {
+        return fetchWeatherFromAPI(weatherWebClient, weatherRequestDTO.getPostalCode());
+    }
 
-            // Convert JSON string to POJO
-            return objectMapper.readValue(weatherResponse, WeatherResponseDTO.class);
+    /**
+     * Fetches weather details for a postal code from the API.
+     *
+     * @param weatherWebClient the client used to call the Weather API
+     * @param postalCode the postal code to fetch weather details for
+     * @return the weather response
+     * @throws WeatherException if there is an error with the request or retrieving the weather data
+     */
+    public static WeatherResponseDTO fetchWeatherFromAPI(WeatherWebClient weatherWebClient, String postalCode) throws  WeatherException {
+        return weatherWebClient.callWeatherAPI(postalCode);
+    }
 
-        } catch (Exception  e) {
-            System.err.println("Caught exception: " + e.getMessage());
-            throw new WeatherException(INTERNAL_SERVER_ERROR,WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now());
+    /**
+     * Fetches weather details for a postal code from the API, sending retries and hedges only when the gate allows.
+     *
+     * @param weatherWebClient the client used to call the Weather API
+     * @param postalCode the postal code to fetch weather details for
+     * @param gate decides whether each retry and hedge may be sent
+     * @return the weather response
+     * @throws WeatherException if there is an error with the request or retrieving the weather data
+     */
+    public static WeatherResponseDTO fetchWeatherFromAPI(WeatherWebClient weatherWebClient, String postalCode, WeatherWebClient.AttemptGate gate) throws  WeatherException {
+        return weatherWebClient.callWeatherAPI(postalCode, gate);
+    }
+
+    /**
+     * Parses a weatherstack response body incrementally from the stream, without buffering it into a String.
+     * A top-level error object, or "success": false, is detected in the same pass. An error for a query weatherstack
+     * could not answer (601, or 615 when its message says there were no results) means no weather was found for the
+     * postal code; any other 615 is an upstream failure, and any other error means the access key was not accepted.
+     * The stream is left open for the caller to drain and close.
+     *
+     * @param body the response body stream
+     * @return the weather response
+     * @throws IOException if the body is not valid JSON
+     * @throws WeatherException with {@link WeatherException#NOT_FOUND_ERROR}, {@link WeatherException#INTERNAL_SERVER_ERROR}
+     *                          or {@link WeatherException#INVALID_ACCESS_KEY} if the body is a weatherstack error response
+     */
+    public static WeatherResponseDTO parseWeatherResponse(InputStream body) throws IOException, WeatherException {
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            WeatherResponseDTO weatherResponseDTO = new WeatherResponseDTO();
+            boolean failed = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "request":
+                        weatherResponseDTO.setRequest(REQUEST_READER.readValue(parser));
+                        break;
+                    case "location":
+                        weatherResponseDTO.setLocation(LOCATION_READER.readValue(parser));
+                        break;
+                    case "current":
+                        weatherResponseDTO.setCurrent(CURRENT_READER.readValue(parser));
+                        break;
+                    case "error":
+                        // Only the fields that identify the error; the rest of the body can be arbitrarily large
+                        JsonNode error = OBJECT_MAPPER.readTree(parser);
+                        int code = error.path("code").asInt();
+                        if (code == MISSING_QUERY_CODE || (code == REQUEST_FAILED_CODE && isNoResults(error))) {
+                            logger.warn("Weather API found no weather: code {}, type {}", code, error.path("type").asText());
+                            throw WeatherException.cached(WeatherException.NOT_FOUND_ERROR, WeatherException.POSTAL_CODE_NOT_FOUND_MSG);
+                        }
+                        if (code == REQUEST_FAILED_CODE) {
+                            logger.error("Weather API request failed: code {}, info {}", code, error.path("info").asText());
+                            throw WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
+                        }
+                        logger.error("Error while calling Weather API: code {}, type {}", error.path("code").asText(), error.path("type").asText());
+                        throw WeatherException.cached(WeatherException.INVALID_ACCESS_KEY, WeatherException.INVALID_ACCESS_KEY_MSG);
+                    case "success":
+                        failed = value == JsonToken.VALUE_FALSE;
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (failed) {
+                throw WeatherException.cached(WeatherException.INVALID_ACCESS_KEY, WeatherException.INVALID_ACCESS_KEY_MSG);
+            }
+            return weatherResponseDTO;
         }
     }
 
+    private static boolean isNoResults(JsonNode error) {
+        return error.path("info").asText().toLowerCase(Locale.ROOT).contains(NO_RESULTS);
+    }
+
     /**
      * Converts a list of weather entities to a weather summary.
      *
@@ -202,6 +326,89 @@ public class WeatherUtility {
         return weatherSummaryDTO;
     }
 
+    /**
+     * Assembles one page of projected weather history, fetched newest first with one row beyond the limit,
+     * into a weather summary. The extra row only signals that another page exists; when it is present the
+     * summary carries a cursor pointing past the last entry returned.
+     *
+     * @param history the history entries, newest first, at most limit + 1 of them
+     * @param limit the page size
+     * @return the weather summary with the next cursor, if any
+     */
+    public static WeatherSummaryDTO convertWeatherHistoryToWeatherPage(List<WeatherSummaryDTO.WeatherHistory> history, int limit) {
+        WeatherSummaryDTO weatherSummaryDTO = new WeatherSummaryDTO();
+        if (history == null) {
+            return weatherSummaryDTO;
+        }
+        if (history.size() <= limit) {
+            weatherSummaryDTO.setHistory(history);
+            return weatherSummaryDTO;
+        }
+        List<WeatherSummaryDTO.WeatherHistory> page = history.subList(0, limit);
+        weatherSummaryDTO.setHistory(page);
+        weatherSummaryDTO.setNextCursor(encodeHistoryCursor(page.get(limit - 1).getId()));
+        return weatherSummaryDTO;
+    }
+
+    /**
+     * Writes weather history as newline-delimited JSON, one entry per line, as the entries are produced.
+     * Only the generator's buffer is held in memory, whatever the number of entries.
+     * The stream is flushed but left open for the caller.
+     *
+     * @param history the history entries to write
+     * @param out the stream to write to
+     * @return the number of entries written
+     * @throws IOException if writing fails, for example because the client went away
+     */
+    public static long writeWeatherHistoryNdjson(Iterator<WeatherSummaryDTO.WeatherHistory> history, OutputStream out) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Each line is a value of its own, without the space Jackson puts between root values by default
+            generator.setRootValueSeparator(null);
+            while (history.hasNext()) {
+                HISTORY_WRITER.writeValue(generator, history.next());
+                generator.writeRaw('\n');
+                written++;
+            }
+            generator.flush();
+        }
+        return written;
+    }
+
+    /**
+     * Encodes the id of the last row on a history page as an opaque cursor.
+     *
+     * @param id the id of the last row returned
+     * @return the cursor for the next page
+     */
+    public static String encodeHistoryCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a history cursor into the id that the next page must stay below.
+     * A missing cursor means the first page.
+     *
+     * @param cursor the cursor from a previous response, or null
+     * @return the exclusive upper bound on ids for the page
+     * @throws WeatherException if the cursor is malformed
+     */
+    public static long decodeHistoryCursor(String cursor) throws WeatherException {
+        if (Strings.isBlank(cursor)) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (id > 0) {
+                return id;
+            }
+        } catch (IllegalArgumentException e) {
+            logger.debug("Malformed history cursor: {}", cursor);
+        }
+        throw WeatherException.cached(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_PAGE_MSG);
+    }
+
     /**
      * Sets the weather history for a given weather entity.
      *
@@ -243,6 +450,7 @@ public class WeatherUtility {
                 .build();
 
         WeatherSummaryDTO.WeatherHistory weatherHistory = new WeatherSummaryDTO.WeatherHistory();
+        weatherHistory.setId(weatherEntity.getId());
         weatherHistory.setLocation(location);
         weatherHistory.setWeather(currentDTO);
 
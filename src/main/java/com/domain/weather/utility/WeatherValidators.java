@@ -0,0 +1,95 @@
+package com.domain.weather.utility;
+
+import java.util.regex.Pattern;
+
+/**
+ * WeatherValidators holds the input validators used on every request.
+ * The checks are hand-written character scans that accept exactly the same inputs as the
+ * reference patterns below, without compiling a pattern or allocating a Matcher per call.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public final class WeatherValidators {
+
+    /**
+     * Reference grammar for US postal codes: ZIP5 or ZIP+4.
+     */
+    public static final Pattern US_POSTAL_CODE_PATTERN = Pattern.compile("^[0-9]{5}(?:-[0-9]{4})?$");
+
+    /**
+     * Reference grammar for user names: ASCII letters, with single spaces, apostrophes or hyphens between words.
+     */
+    public static final Pattern NAME_PATTERN = Pattern.compile("^[A-Za-z]+([ '-][A-Za-z]+)*$");
+
+    private WeatherValidators() {
+    }
+
+    /**
+     * Checks a postal code against {@link #US_POSTAL_CODE_PATTERN}.
+     *
+     * @param postalCode the postal code to check
+     * @return true if the postal code is a ZIP5 or ZIP+4 code, false otherwise
+     */
+    public static boolean isUsPostalCode(String postalCode) {
+        if (postalCode == null) {
+            return false;
+        }
+        int length = postalCode.length();
+        if (length != 5 && length != 10) {
+            return false;
+        }
+        for (int i = 0; i < 5; i++) {
+            if (!isAsciiDigit(postalCode.charAt(i))) {
+                return false;
+            }
+        }
+        if (length == 5) {
+            return true;
+        }
+        if (postalCode.charAt(5) != '-') {
+            return false;
+        }
+        for (int i = 6; i < 10; i++) {
+            if (!isAsciiDigit(postalCode.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks a user name against {@link #NAME_PATTERN}.
+     *
+     * @param name the user name to check
+     * @return true if the name is well formed, false otherwise
+     */
+    public static boolean isName(String name) {
+        if (name == null || name.isEmpty()) {
+            return false;
+        }
+        // Each separator must sit between two letters, so the name starts and ends with a letter
+        // and no two separators are adjacent.
+        boolean previousWasLetter = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (isAsciiLetter(c)) {
+                previousWasLetter = true;
+            } else if ((c == ' ' || c == '\'' || c == '-') && previousWasLetter) {
+                previousWasLetter = false;
+            } else {
+                return false;
+            }
+        }
+        return previousWasLetter;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+}
@@ -1,97 +1,642 @@
 package com.domain.weather.utility;
 
 import com.domain.weather.exception.WeatherException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.domain.weather.model.WeatherResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.time.LocalDateTime;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * WeatherWebClient is a utility class for making HTTP requests to the Weather API.
- * It provides a method to call the Weather API and retrieve weather details for a given postal code.
+ * WeatherWebClient is a client component for making HTTP requests to the Weather API.
+ * It keeps a single pooled, keep-alive {@link HttpClient} (HTTP/2 where the server supports it)
+ * and caps the number of connections in use at any time.
+ * <p>
+ * Every attempt, body included, is bounded by the read timeout.
+ * An attempt that times out or is abandoned has its response body closed, so a body that stops arriving
+ * gives back its connection and its reader thread.
+ * <p>
+ * Every call has a total deadline. Connection errors, timeouts and 5xx responses are retried, the call being
+ * an idempotent GET, with exponential backoff and full jitter while the deadline allows. When hedging is on,
+ * an attempt that is still running after the configured latency percentile of recent successful attempts gets
+ * a second, hedged attempt, and whichever answers first wins. Hedges only use connections that are free.
+ * Every retry and hedge must also pass the caller's {@link AttemptGate}, so a rate limit can charge each attempt
+ * that reaches the Weather API; a hedge that does not pass is skipped and a retry that does not pass fails the call.
+ * <p>
+ * Once bound to a registry, every attempt is timed by HTTP status, with CLIENT_ERROR for attempts that got no
+ * response, and the time spent reading and parsing successful bodies is timed on its own.
  *
  * @author Puja Chaudhury
  * @version 1.0
  * @since December 2024
  */
 @Component
-public class WeatherWebClient {
+public class WeatherWebClient implements MeterBinder {
 
-    private static final Logger logger = LoggerFactory.getLogger(WeatherWebClient.class);
+    private static final Logger logger = LogManager.getLogger(WeatherWebClient.class);
 
-    @Value("${apiKey}")
-    private String apiKey;
+    private static final int LATENCY_WINDOW = 128;
 
-    private static String staticApiKey;
+    private static final int HEDGE_MIN_SAMPLES = 20;
 
-    @PostConstruct
-    public void init() {
-        staticApiKey = apiKey;
+    private static final int HEDGE_DELAY_UPDATE_INTERVAL = 16;
+
+    private static final int MAX_STATUS_CODE = 599;
+
+    private static final String CLIENT_ERROR = "CLIENT_ERROR";
+
+    private final String apiKey;
+
+    private final String baseUrl;
+
+    private final Duration connectTimeout;
+
+    private final Duration readTimeout;
+
+    private final Semaphore connectionPermits;
+
+    private final HttpClient httpClient;
+
+    private final long deadlineNanos;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final boolean hedgeEnabled;
+
+    private final int hedgePercentile;
+
+    private final long hedgeMinDelayNanos;
+
+    private final ExecutorService responseExecutor;
+
+    private final ReentrantLock latencyLock = new ReentrantLock();
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+
+    private int latencyCount;
+
+    private int latencyNext;
+
+    private volatile long hedgeDelayNanos = -1;
+
+    private final LongAdder retries = new LongAdder();
+
+    private final LongAdder hedgesFired = new LongAdder();
+
+    private final LongAdder hedgesWon = new LongAdder();
+
+    private volatile MeterRegistry meterRegistry;
+
+    private final AtomicReferenceArray<Timer> requestTimers = new AtomicReferenceArray<>(MAX_STATUS_CODE + 1);
+
+    private volatile Timer clientErrorTimer;
+
+    private volatile Timer parseTimer;
+
+    @Autowired
+    public WeatherWebClient(@Value("${apiKey}") String apiKey,
+                            @Value("${weather.client.base-url:https://api.weatherstack.com}") String baseUrl,
+                            @Value("${weather.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+                            @Value("${weather.client.read-timeout-ms:5000}") long readTimeoutMs,
+                            @Value("${weather.client.max-connections:50}") int maxConnections,
+                            @Value("${weather.client.deadline-ms:8000}") long deadlineMs,
+                            @Value("${weather.client.retry.max-attempts:3}") int maxAttempts,
+                            @Value("${weather.client.retry.initial-backoff-ms:100}") long initialBackoffMs,
+                            @Value("${weather.client.retry.max-backoff-ms:1000}") long maxBackoffMs,
+                            @Value("${weather.client.hedge.enabled:true}") boolean hedgeEnabled,
+                            @Value("${weather.client.hedge.percentile:95}") int hedgePercentile,
+                            @Value("${weather.client.hedge.min-delay-ms:50}") long hedgeMinDelayMs) {
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.connectTimeout = Duration.ofMillis(connectTimeoutMs);
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.connectionPermits = new Semaphore(maxConnections, true);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, initialBackoffMs));
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(initialBackoffMs, maxBackoffMs));
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = Math.max(1, Math.min(100, hedgePercentile));
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, hedgeMinDelayMs));
+        AtomicInteger threadCount = new AtomicInteger();
+        // Every body being read holds a connection permit, so one reader per connection is enough
+        int readers = Math.max(1, maxConnections);
+        ThreadPoolExecutor readerPool = new ThreadPoolExecutor(readers, readers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "weather-client-response-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        readerPool.allowCoreThreadTimeOut(true);
+        this.responseExecutor = readerPool;
+    }
+
+    /**
+     * Creates a client that makes a single attempt per call, without retries or hedging,
+     * bounded by the connect and read timeouts.
+     */
+    public WeatherWebClient(String apiKey, String baseUrl, long connectTimeoutMs, long readTimeoutMs, int maxConnections) {
+        this(apiKey, baseUrl, connectTimeoutMs, readTimeoutMs, maxConnections, connectTimeoutMs + readTimeoutMs,
+                1, 100, 100, false, 95, 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        responseExecutor.shutdownNow();
     }
 
     /**
      * Calls the Weather API and retrieves weather details for a given postal code.
+     * Connections are reused across calls; an attempt waits at most the connect timeout
+     * for a free connection and at most the read timeout for the response, and the call
+     * as a whole, retries and hedges included, gives up at the deadline.
+     * The body is parsed straight from the response stream.
+     *
+     * @param postalCode the postal code to retrieve weather details for
+     * @return the weather details
+     * @throws WeatherException if there is an error with the request or retrieving the weather data
+     */
+    public WeatherResponseDTO callWeatherAPI(String postalCode) throws WeatherException {
+        return callWeatherAPI(postalCode, AttemptGate.OPEN);
+    }
+
+    /**
+     * Calls the Weather API as {@link #callWeatherAPI(String)} does, sending a retry or a hedge only when the gate
+     * lets it through. The first attempt is not put to the gate.
      *
      * @param postalCode the postal code to retrieve weather details for
-     * @return the weather details as a JSON string
+     * @param gate       decides whether each retry and hedge may be sent, and is told of the time spent backing off
+     * @return the weather details
      * @throws WeatherException if there is an error with the request or retrieving the weather data
      */
-    public static String CallWeatherAPI(String postalCode) throws WeatherException {
-        StringBuilder response = new StringBuilder();
+    public WeatherResponseDTO callWeatherAPI(String postalCode, AttemptGate gate) throws WeatherException {
+        long deadline = System.nanoTime() + deadlineNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return callHedged(postalCode, deadline, gate);
+            } catch (RetryableException e) {
+                long backoff = backoffNanos(attempt);
+                if (attempt >= maxAttempts || System.nanoTime() + backoff >= deadline) {
+                    logger.error("Error while calling Weather API after {} attempt(s): {}", attempt, e.getMessage(), e.getCause());
+                    throw internalServerError();
+                }
+                logger.warn("Weather API attempt {} failed ({}), retrying in {} ms", attempt, e.getMessage(), TimeUnit.NANOSECONDS.toMillis(backoff));
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    logger.error("Interrupted while calling Weather API", interrupted);
+                    throw internalServerError();
+                } finally {
+                    gate.backedOff(backoff);
+                }
+                if (!gate.tryAcquire()) {
+                    logger.error("Weather API attempt {} failed ({}) and no retry was allowed", attempt, e.getMessage(), e.getCause());
+                    throw internalServerError();
+                }
+                retries.increment();
+            }
+        }
+    }
 
-        // Step 1: Define the API endpoint URL
-        String urlString = "https://api.weatherstack.com/current?access_key=" + staticApiKey + "&query=" + postalCode;
+    /**
+     * Full jitter: a random wait between zero and the exponentially growing, capped backoff.
+     */
+    private long backoffNanos(int attempt) {
+        long cap = initialBackoffNanos << Math.min(attempt - 1, 30);
+        if (cap <= 0 || cap > maxBackoffNanos) {
+            cap = maxBackoffNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
 
+    private WeatherResponseDTO callHedged(String postalCode, long deadline, AttemptGate gate) {
+        Attempt primary = startAttempt(postalCode, deadline, null);
+        long hedgeDelay = hedgeEnabled ? hedgeDelayNanos : -1;
+        if (hedgeDelay < 0 || deadline - System.nanoTime() <= hedgeDelay) {
+            return await(primary.result, deadline, primary);
+        }
         try {
-            // Step 1: Create a URL object
-            URL url = new URL(urlString);
+            return primary.result.get(hedgeDelay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Still running after the hedge delay
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel();
+            logger.error("Interrupted while calling Weather API", e);
+            throw internalServerError();
+        } catch (ExecutionException e) {
+            throw classify(e.getCause());
+        }
 
-            // Step 2: Open the HTTP connection
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        Attempt hedge = startAttempt(postalCode, deadline, gate);
+        if (hedge == null) {
+            return await(primary.result, deadline, primary);
+        }
+        hedgesFired.increment();
+        AtomicReference<Attempt> winner = new AtomicReference<>();
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<WeatherResponseDTO> first = new CompletableFuture<>();
+        for (Attempt attempt : Arrays.asList(primary, hedge)) {
+            attempt.result.whenComplete((result, error) -> {
+                if (error == null) {
+                    if (winner.compareAndSet(null, attempt)) {
+                        first.complete(result);
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            WeatherResponseDTO result = await(first, deadline, primary, hedge);
+            if (winner.get() == hedge) {
+                hedgesWon.increment();
+            }
+            return result;
+        } finally {
+            primary.cancel();
+            hedge.cancel();
+        }
+    }
 
-            // Step 3: Set the request method to GET
-            connection.setRequestMethod("GET");
+    /**
+     * Sends one attempt. The primary attempt waits for a free connection; a hedge only takes one that is free now,
+     * and only once its gate lets it through.
+     *
+     * @param hedgeGate the gate of a hedge, or null for the primary attempt
+     * @return the attempt, or null for a hedge when no connection is free or the gate does not let it through
+     */
+    private Attempt startAttempt(String postalCode, long deadline, AttemptGate hedgeGate) {
+        boolean hedge = hedgeGate != null;
+        long remaining = deadline - System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = hedge ? connectionPermits.tryAcquire()
+                    : connectionPermits.tryAcquire(Math.min(connectTimeout.toNanos(), remaining), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while calling Weather API", e);
+            throw internalServerError();
+        }
+        if (!acquired) {
+            if (hedge) {
+                return null;
+            }
+            logger.error("No free connection to Weather API within {} ms", connectTimeout.toMillis());
+            throw internalServerError();
+        }
+        if (hedge && !hedgeGate.tryAcquire()) {
+            connectionPermits.release();
+            return null;
+        }
 
-            // Step 4: Get the response code
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                // Step 5: Read the response
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                String inputLine;
+        long start = System.nanoTime();
+        long attemptTimeout = Math.max(1, Math.min(readTimeout.toNanos(), remaining));
+        CompletableFuture<HttpResponse<InputStream>> exchange;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(buildUri(postalCode))
+                    .timeout(Duration.ofNanos(attemptTimeout))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (RuntimeException e) {
+            connectionPermits.release();
+            logger.error("Error while calling Weather API: {}", e.getMessage(), e);
+            throw internalServerError();
+        }
+        exchange.whenComplete((response, error) -> {
+            // Abandoned hedges and attempts cut off by the deadline are not upstream failures
+            if (error != null && !(error instanceof CancellationException)) {
+                recordRequest(CLIENT_ERROR, System.nanoTime() - start);
+            }
+        });
+        AtomicReference<InputStream> body = new AtomicReference<>();
+        CompletableFuture<WeatherResponseDTO> result = exchange.thenApplyAsync(response -> read(response, body, postalCode, start), responseExecutor);
+        // The request timeout only covers the response headers, so the body is bounded here
+        result.orTimeout(attemptTimeout, TimeUnit.NANOSECONDS);
+        Attempt attempt = new Attempt(exchange, result, body);
+        result.whenComplete((weatherResponseDTO, error) -> {
+            attempt.closeBody();
+            connectionPermits.release();
+            if (error == null) {
+                recordLatency(System.nanoTime() - start);
+            }
+        });
+        return attempt;
+    }
 
-                while ((inputLine = reader.readLine()) != null) {
-                    response.append(inputLine);
+    private WeatherResponseDTO read(HttpResponse<InputStream> response, AtomicReference<InputStream> openBody, String postalCode, long start) {
+        int statusCode = response.statusCode();
+        if (!openBody.compareAndSet(null, response.body())) {
+            // Abandoned or timed out before the read started
+            closeQuietly(response.body());
+            throw new CancellationException("Weather API attempt abandoned");
+        }
+        try (InputStream body = response.body()) {
+            try {
+                if (statusCode >= 500) {
+                    throw new RetryableException("HTTP " + statusCode, null);
                 }
-                reader.close();
-                if (response.toString().contains("error")) {
-                    logger.error("Error while calling Weather API: {}", response.toString());
-                    throw new WeatherException(
-                            WeatherException.INVALID_ACCESS_KEY,
-                            WeatherException.INVALID_ACCESS_KEY_MSG,
-                            LocalDateTime.now()
-                    );
+                if (statusCode != 200) {
+                    logger.error("GET request failed. HTTP Error Code: {}", statusCode);
+                    throw internalServerError();
                 }
-                logger.info("Weather API Response: {}", response.toString());
+                long parseStart = System.nanoTime();
+                WeatherResponseDTO weatherResponseDTO = WeatherUtility.parseWeatherResponse(body);
+                recordParse(System.nanoTime() - parseStart);
+                logger.debug("Weather API Response received for postal code: {}", postalCode);
+                return weatherResponseDTO;
+            } finally {
+                drain(body);
+                recordRequest(statusCode, System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            } else {
-                logger.error("GET request failed. HTTP Error Code: {}", responseCode);
+    private void recordRequest(int statusCode, long nanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        if (statusCode < 0 || statusCode > MAX_STATUS_CODE) {
+            recordRequest(String.valueOf(statusCode), nanos);
+            return;
+        }
+        Timer timer = requestTimers.get(statusCode);
+        if (timer == null) {
+            timer = requestTimer(meterRegistry, String.valueOf(statusCode));
+            requestTimers.set(statusCode, timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordRequest(String status, long nanos) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Timer timer = CLIENT_ERROR.equals(status) ? clientErrorTimer : requestTimer(registry, status);
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordParse(long nanos) {
+        Timer timer = parseTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer requestTimer(MeterRegistry registry, String status) {
+        return WeatherMetrics.latencyTimer("weather.upstream.requests", "Weather API attempts, by HTTP status")
+                .tag("status", status)
+                .register(registry);
+    }
+
+    /**
+     * Waits for the result until the deadline, cancelling the attempts if it passes.
+     */
+    private WeatherResponseDTO await(CompletableFuture<WeatherResponseDTO> result, long deadline, Attempt... attempts) {
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancel(attempts);
+            logger.error("Weather API call exceeded its {} ms deadline", TimeUnit.NANOSECONDS.toMillis(deadlineNanos));
+            throw internalServerError();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(attempts);
+            logger.error("Interrupted while calling Weather API", e);
+            throw internalServerError();
+        } catch (ExecutionException e) {
+            throw classify(e.getCause());
+        }
+    }
+
+    private static void cancel(Attempt... attempts) {
+        for (Attempt attempt : attempts) {
+            attempt.cancel();
+        }
+    }
+
+    /**
+     * Maps an attempt failure to the exception to throw: weatherstack errors pass through, connection errors,
+     * timeouts and 5xx responses are retryable, and anything else, such as an unparseable body, is not.
+     */
+    private static RuntimeException classify(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof UncheckedIOException) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof WeatherException || cause instanceof RetryableException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof TimeoutException) {
+            return new RetryableException("no complete response within the read timeout", cause);
+        }
+        if (cause instanceof IOException && !(cause instanceof JsonProcessingException)) {
+            return new RetryableException(cause.getClass().getSimpleName() + ": " + cause.getMessage(), cause);
+        }
+        logger.error("Error while calling Weather API: {}", cause.getMessage(), cause);
+        return internalServerError();
+    }
+
+    private void recordLatency(long nanos) {
+        latencyLock.lock();
+        try {
+            latencies[latencyNext] = nanos;
+            latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+            if (latencyCount >= HEDGE_MIN_SAMPLES && (hedgeDelayNanos < 0 || latencyNext % HEDGE_DELAY_UPDATE_INTERVAL == 0)) {
+                long[] sorted = Arrays.copyOf(latencies, latencyCount);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(hedgePercentile / 100.0 * latencyCount) - 1;
+                hedgeDelayNanos = Math.max(hedgeMinDelayNanos, sorted[Math.max(0, index)]);
             }
+        } finally {
+            latencyLock.unlock();
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Error while calling Weather API: {}", e.getMessage(), e);
-            throw new WeatherException(
-                    WeatherException.INTERNAL_SERVER_ERROR,
-                    WeatherException.INTERNAL_SERVER_ERROR_MSG,
-                    LocalDateTime.now()
-            );
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            logger.debug("Could not close Weather API response: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Consumes any trailing bytes so the connection goes back to the pool.
+     */
+    private static void drain(InputStream body) {
+        try {
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            logger.debug("Could not drain Weather API response: {}", e.getMessage());
+        }
+    }
+
+    private URI buildUri(String postalCode) {
+        return URI.create(baseUrl + "/current?access_key=" + URLEncoder.encode(String.valueOf(apiKey), StandardCharsets.UTF_8)
+                + "&query=" + URLEncoder.encode(String.valueOf(postalCode), StandardCharsets.UTF_8));
+    }
+
+    private static WeatherException internalServerError() {
+        return WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.upstream.retries", retries, LongAdder::sum)
+                .description("Weather API attempts retried after a connection error, timeout or 5xx response")
+                .register(registry);
+        FunctionCounter.builder("weather.upstream.hedges", hedgesFired, LongAdder::sum).tag("outcome", "fired").register(registry);
+        FunctionCounter.builder("weather.upstream.hedges", hedgesWon, LongAdder::sum).tag("outcome", "won").register(registry);
+        Gauge.builder("weather.upstream.hedge.delay", this, WeatherWebClient::getHedgeDelayMillis)
+                .description("Time after which a hedged attempt is sent, -1 until enough calls are recorded")
+                .baseUnit("milliseconds")
+                .register(registry);
+        requestTimers.set(200, requestTimer(registry, "200"));
+        clientErrorTimer = requestTimer(registry, CLIENT_ERROR);
+        parseTimer = WeatherMetrics.latencyTimer("weather.upstream.parse", "Time spent reading and parsing Weather API response bodies")
+                .register(registry);
+        meterRegistry = registry;
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getHedgesFired() {
+        return hedgesFired.sum();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    public double getHedgeDelayMillis() {
+        long delay = hedgeDelayNanos;
+        return delay < 0 ? -1 : delay / 1_000_000.0;
+    }
+
+    /**
+     * Lets a call's retries and hedges through, for example while a rate limit token is free.
+     * It is only used from the thread making the call.
+     */
+    public interface AttemptGate {
+
+        /**
+         * A gate that lets every retry and hedge through.
+         */
+        AttemptGate OPEN = () -> true;
+
+        /**
+         * @return true if another attempt may be sent now; the attempt is then sent
+         */
+        boolean tryAcquire();
+
+        /**
+         * Called after each wait between a failed attempt and its retry.
+         *
+         * @param nanos the time waited
+         */
+        default void backedOff(long nanos) {
+        }
+    }
+
+    /**
+     * One HTTP attempt: the exchange and the response body, which are cancelled and closed when the attempt
+     * is abandoned, and its parsed result.
+     */
+    private static final class Attempt {
+
+        private static final InputStream CLOSED = InputStream.nullInputStream();
+
+        private final CompletableFuture<HttpResponse<InputStream>> exchange;
+
+        private final CompletableFuture<WeatherResponseDTO> result;
+
+        private final AtomicReference<InputStream> body;
+
+        private Attempt(CompletableFuture<HttpResponse<InputStream>> exchange, CompletableFuture<WeatherResponseDTO> result,
+                        AtomicReference<InputStream> body) {
+            this.exchange = exchange;
+            this.result = result;
+            this.body = body;
+        }
+
+        private void cancel() {
+            exchange.cancel(true);
+            closeBody();
+        }
+
+        /**
+         * Closes the body, which wakes a read blocked on it, or keeps one that is not read yet from being read.
+         */
+        private void closeBody() {
+            InputStream open = body.getAndSet(CLOSED);
+            if (open != null && open != CLOSED) {
+                closeQuietly(open);
+            }
+        }
+    }
+
+    /**
+     * A failed attempt that is safe to retry. Created on every failure, so it skips the stack trace.
+     */
+    private static final class RetryableException extends RuntimeException {
+
+        private RetryableException(String message, Throwable cause) {
+            super(message, cause, false, false);
         }
-        return response.toString();
     }
-}
\ No newline at end of file
+}
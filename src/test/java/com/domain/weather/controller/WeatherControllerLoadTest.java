@@ -0,0 +1,161 @@
+package com.domain.weather.controller;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a load test for the `WeatherController` against a slow local Weather API stub.
+ * Floods POST /app/weather with more concurrent saves than there are servlet threads while the stub
+ * holds every upstream call, and checks that /app/history reads are still served promptly.
+ * It compares wall-clock timings, so it is tagged load and runs with ./gradlew slowTest rather than test.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=4",
+        "server.tomcat.threads.min-spare=4",
+        "weather.async.threads=64",
+        "weather.async.queue-capacity=64",
+        "weather.client.max-connections=64",
+        "weather.client.read-timeout-ms=10000",
+        "weather.cache.refresh-top-n=0",
+        "weather.ratelimit.enabled=false"
+})
+public class WeatherControllerLoadTest {
+
+    private static final Logger logger = LogManager.getLogger(WeatherControllerLoadTest.class);
+
+    private static final long UPSTREAM_DELAY_MS = 2000;
+
+    private static final int SAVES = 32;
+
+    private static final int READS = 50;
+
+    private static final String UPSTREAM_BODY = "{\"request\":{\"type\":\"Zipcode\",\"query\":\"10001\",\"language\":\"en\",\"unit\":\"m\"},"
+            + "\"location\":{\"name\":\"New York\",\"country\":\"United States of America\",\"region\":\"New York\",\"lat\":\"40.714\",\"lon\":\"-74.006\","
+            + "\"timezone_id\":\"America/New_York\",\"localtime\":\"2024-12-26 12:00\",\"localtime_epoch\":1735214400,\"utc_offset\":\"-5.0\"},"
+            + "\"current\":{\"observation_time\":\"05:00 PM\",\"temperature\":2,\"weather_code\":113,\"weather_icons\":[\"sunny.png\"],"
+            + "\"weather_descriptions\":[\"Sunny\"],\"wind_speed\":11,\"wind_degree\":292,\"wind_dir\":\"WNW\",\"pressure\":1023,\"precip\":0,"
+            + "\"humidity\":45,\"cloudcover\":0,\"feelslike\":-2,\"uv_index\":1,\"visibility\":16,\"is_day\":\"yes\"}}";
+
+    private static HttpServer upstream;
+
+    private static ExecutorService upstreamThreads;
+
+    private static final CountDownLatch upstreamArrivals = new CountDownLatch(SAVES);
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) throws IOException {
+        upstreamThreads = Executors.newCachedThreadPool();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.setExecutor(upstreamThreads);
+        upstream.createContext("/current", exchange -> {
+            upstreamArrivals.countDown();
+            try {
+                Thread.sleep(UPSTREAM_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = UPSTREAM_BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        upstream.start();
+        registry.add("weather.client.base-url", () -> "http://127.0.0.1:" + upstream.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+        upstreamThreads.shutdownNow();
+    }
+
+    @Test
+    public void testHistoryReads_UnaffectedBySlowUpstreamSaves() throws Exception {
+        // Arrange
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newCachedThreadPool())
+                .build();
+        readHistory(client, READS);
+        long baselineNanos = readHistory(client, READS);
+        AtomicInteger savesCompleted = new AtomicInteger();
+        List<CompletableFuture<HttpResponse<String>>> saves = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < SAVES; i++) {
+            HttpRequest save = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/app/weather"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"user\":\"loader\",\"postalCode\":\"" + (10000 + i) + "\"}"))
+                    .build();
+            saves.add(client.sendAsync(save, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> savesCompleted.incrementAndGet()));
+        }
+        assertTrue(upstreamArrivals.await(UPSTREAM_DELAY_MS, TimeUnit.MILLISECONDS), "saves should all be waiting on the upstream at once");
+        long loadedNanos = readHistory(client, READS);
+        int savesCompletedDuringReads = savesCompleted.get();
+
+        // Assert
+        for (CompletableFuture<HttpResponse<String>> save : saves) {
+            assertEquals(200, save.get(UPSTREAM_DELAY_MS * 5, TimeUnit.MILLISECONDS).statusCode());
+        }
+        logger.info("History reads: {} req/s idle, {} req/s with {} saves waiting on a {} ms upstream",
+                READS * 1_000_000_000L / baselineNanos, READS * 1_000_000_000L / loadedNanos, SAVES, UPSTREAM_DELAY_MS);
+        assertEquals(0, savesCompletedDuringReads, "reads should have run while every save was still waiting");
+        // With blocking saves the four servlet threads would be held for the whole upstream delay, several times over
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(loadedNanos) < UPSTREAM_DELAY_MS,
+                "reads took " + TimeUnit.NANOSECONDS.toMillis(loadedNanos) + " ms behind " + SAVES + " slow saves");
+        assertTrue(loadedNanos < baselineNanos * 2,
+                "read throughput dropped from " + READS * 1_000_000_000L / baselineNanos + " to " + READS * 1_000_000_000L / loadedNanos + " req/s");
+    }
+
+    /**
+     * Sends the reads one after another and returns the total time taken.
+     */
+    private long readHistory(HttpClient client, int reads) throws Exception {
+        HttpRequest read = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/app/history?user=reader&limit=10"))
+                .timeout(Duration.ofMillis(UPSTREAM_DELAY_MS * 5))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            assertEquals(200, client.send(read, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+        return System.nanoTime() - start;
+    }
+}
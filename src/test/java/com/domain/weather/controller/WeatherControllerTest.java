@@ -3,6 +3,7 @@ package com.domain.weather.controller;
 import com.domain.weather.exception.WeatherException;
 import com.domain.weather.model.*;
 import com.domain.weather.service.WeatherService;
+import com.domain.weather.utility.WeatherMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,17 +15,27 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -45,6 +56,9 @@ public class WeatherControllerTest {
     @MockBean
     private WeatherService weatherService;
 
+    @Autowired
+    private WeatherMetrics weatherMetrics;
+
     private ObjectMapper objectMapper;
 
     @BeforeEach
@@ -57,23 +71,75 @@ public class WeatherControllerTest {
         // Arrange
         WeatherRequestDTO weatherRequestDTO = createValidWeatherRequest();
         WeatherSummaryDTO.WeatherHistory expectedWeatherHistory = new WeatherSummaryDTO.WeatherHistory();
-        when(weatherService.saveWeather(any(WeatherRequestDTO.class))).thenReturn(expectedWeatherHistory);
+        when(weatherService.saveWeatherAsync(any(WeatherRequestDTO.class))).thenReturn(CompletableFuture.completedFuture(expectedWeatherHistory));
 
         // Act & Assert
-        mockMvc.perform(post("/app/weather")
+        MvcResult started = mockMvc.perform(post("/app/weather")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(weatherRequestDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(expectedWeatherHistory)));
     }
 
+    @Test
+    public void testSaveWeatherBulk_ReturnsPerItemResults() throws Exception {
+        // Arrange
+        WeatherBulkResponseDTO.Result saved = new WeatherBulkResponseDTO.Result();
+        saved.setIndex(0);
+        saved.setWeather(new WeatherSummaryDTO.WeatherHistory());
+        WeatherBulkResponseDTO.Result failed = new WeatherBulkResponseDTO.Result();
+        failed.setIndex(1);
+        failed.setError(new WeatherErrorResponse(WeatherException.INVALID_REQUEST_MSG, WeatherException.INVALID_REQUEST_ERROR, null));
+        WeatherBulkResponseDTO bulkResponse = new WeatherBulkResponseDTO();
+        bulkResponse.setSaved(1);
+        bulkResponse.setFailed(1);
+        bulkResponse.setResults(Arrays.asList(saved, failed));
+        when(weatherService.saveWeatherBulk(any())).thenReturn(bulkResponse);
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/app/weather/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(createValidWeatherRequest(), new WeatherRequestDTO()))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("\"saved\":1"));
+        assertTrue(body.contains(WeatherException.INVALID_REQUEST_ERROR));
+    }
+
+    @Test
+    public void testSaveWeather_UpstreamUnavailableIs503() throws Exception {
+        // Arrange
+        when(weatherService.saveWeatherAsync(any(WeatherRequestDTO.class))).thenReturn(CompletableFuture.failedFuture(
+                new WeatherException(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG, LocalDateTime.now())));
+        double unavailableBefore = weatherMetrics.getExceptionCount(WeatherException.SERVICE_UNAVAILABLE_ERROR);
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/app/weather")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidWeatherRequest())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andReturn();
+
+        // Assert
+        assertTrue(result.getResponse().getContentAsString().contains(WeatherException.SERVICE_UNAVAILABLE_ERROR));
+        assertEquals(unavailableBefore + 1, weatherMetrics.getExceptionCount(WeatherException.SERVICE_UNAVAILABLE_ERROR));
+    }
+
     @Test
     public void testSaveWeather_InvalidRequest() throws Exception {
         // Arrange
         WeatherRequestDTO weatherRequestDTO = new WeatherRequestDTO();
         weatherRequestDTO.setUser("testUser");
         weatherRequestDTO.setPostalCode("123");
-        when(weatherService.saveWeather(any(WeatherRequestDTO.class))).thenReturn(null);
 
         // Act
         MvcResult result = mockMvc.perform(post("/app/weather")
@@ -92,7 +158,7 @@ public class WeatherControllerTest {
         String user = "testUser";
         String postalCode = "12345";
         WeatherSummaryDTO expectedWeatherSummaryDTO = createValidWeatherSummaryDTO();
-        when(weatherService.getWeather(user, postalCode)).thenReturn(expectedWeatherSummaryDTO);
+        when(weatherService.getWeather(user, postalCode, null, null)).thenReturn(expectedWeatherSummaryDTO);
 
         // Act
         MvcResult result = mockMvc.perform(get("/app/history")
@@ -107,6 +173,41 @@ public class WeatherControllerTest {
         assertEquals(expectedWeatherSummaryDTO.getHistory().get(0).getLocation().getCountry(), actualWeatherSummaryDTO.getHistory().get(0).getLocation().getCountry());
     }
 
+    @Test
+    public void testGetWeather_PassesCursorAndLimit() throws Exception {
+        // Arrange
+        WeatherSummaryDTO expectedWeatherSummaryDTO = createValidWeatherSummaryDTO();
+        expectedWeatherSummaryDTO.setNextCursor("MTA");
+        when(weatherService.getWeather("testUser", null, "MjA", 1)).thenReturn(expectedWeatherSummaryDTO);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/app/history")
+                        .param("user", "testUser")
+                        .param("cursor", "MjA")
+                        .param("limit", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        WeatherSummaryDTO actualWeatherSummaryDTO = objectMapper.readValue(result.getResponse().getContentAsString(), WeatherSummaryDTO.class);
+        assertEquals("MTA", actualWeatherSummaryDTO.getNextCursor());
+    }
+
+    @Test
+    public void testGetWeather_InvalidPageIsBadRequest() throws Exception {
+        // Arrange
+        when(weatherService.getWeather("testUser", null, null, 0)).thenThrow(
+                new WeatherException(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_PAGE_MSG, LocalDateTime.now()));
+
+        // Act & Assert
+        mockMvc.perform(get("/app/history")
+                        .param("user", "testUser")
+                        .param("limit", "0")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testGetWeather_InvalidPostalCode() throws Exception {
         // Arrange
@@ -124,6 +225,68 @@ public class WeatherControllerTest {
         assertTrue(result.getResponse().getContentAsString().contains(WeatherException.INVALID_POSTAL_CODE_MSG));
     }
 
+    @Test
+    public void testExportWeather_NdjsonAcceptHeader() throws Exception {
+        // Arrange
+        stubExport("testUser", null);
+
+        // Act
+        MvcResult started = mockMvc.perform(get("/app/history")
+                        .param("user", "testUser")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        assertEquals(2, result.getResponse().getContentAsString().split("\n").length);
+    }
+
+    @Test
+    public void testExportWeather_FormatFlag() throws Exception {
+        // Arrange
+        stubExport(null, "12345");
+
+        // Act
+        MvcResult started = mockMvc.perform(get("/app/history")
+                        .param("postalCode", "12345")
+                        .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        assertTrue(result.getResponse().getContentAsString().startsWith("{\"location\""));
+    }
+
+    @Test
+    public void testExportWeather_InvalidPostalCodeIsJsonError() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/app/history")
+                        .param("postalCode", "123")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().is5xxServerError())
+                .andReturn();
+
+        // Assert
+        assertTrue(result.getResponse().getContentAsString().contains(WeatherException.INVALID_POSTAL_CODE_MSG));
+        verify(weatherService, never()).exportWeather(any(), any(), any());
+    }
+
+    private void stubExport(String user, String postalCode) throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"location\":{\"name\":\"New York\"}}\n{\"location\":{\"name\":\"Boston\"}}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(weatherService).exportWeather(user == null ? isNull() : eq(user), postalCode == null ? isNull() : eq(postalCode), any(OutputStream.class));
+    }
+
     @Test
     public void testSaveWeather_GenericException_CatchBlock() throws Exception {
         // Arrange
@@ -131,13 +294,16 @@ public class WeatherControllerTest {
         validRequest.setPostalCode("12345");
         validRequest.setUser("testUser");
 
-        when(weatherService.saveWeather(any(WeatherRequestDTO.class)))
-                .thenThrow(new RuntimeException("Unexpected error"));
+        when(weatherService.saveWeatherAsync(any(WeatherRequestDTO.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Unexpected error")));
 
         // Act & Assert
-        MvcResult result = mockMvc.perform(post("/app/weather")
+        MvcResult started = mockMvc.perform(post("/app/weather")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(validRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isInternalServerError())
                 .andReturn();
 
@@ -151,13 +317,16 @@ public class WeatherControllerTest {
         validRequest.setPostalCode("12345");
         validRequest.setUser("testUser");
 
-        when(weatherService.saveWeather(any(WeatherRequestDTO.class)))
-                .thenThrow(new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now()));
+        when(weatherService.saveWeatherAsync(any(WeatherRequestDTO.class)))
+                .thenReturn(CompletableFuture.failedFuture(new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now())));
 
         // Act & Assert
-        MvcResult result = mockMvc.perform(post("/app/weather")
+        MvcResult started = mockMvc.perform(post("/app/weather")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(validRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isInternalServerError())
                 .andReturn();
 
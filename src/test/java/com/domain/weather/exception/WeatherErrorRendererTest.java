@@ -0,0 +1,76 @@
+package com.domain.weather.exception;
+
+import com.domain.weather.model.WeatherErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherErrorRenderer`.
+ * Contains test methods to verify the rendered bodies match Jackson's and are reused within a millisecond.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherErrorRendererTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void testRender_MatchesJackson() throws Exception {
+        // Arrange
+        WeatherErrorRenderer renderer = new WeatherErrorRenderer(Clock.systemUTC());
+        LocalDateTime withNanos = LocalDateTime.of(2024, 12, 26, 10, 15, 30, 123_450_000);
+        LocalDateTime onTheMinute = LocalDateTime.of(2024, 12, 26, 10, 15);
+
+        // Act
+        String first = new String(renderer.render(WeatherException.INVALID_POSTAL_CODE_ERROR, WeatherException.INVALID_POSTAL_CODE_MSG, withNanos), "UTF-8");
+        String second = new String(renderer.render(WeatherException.INVALID_POSTAL_CODE_ERROR, WeatherException.INVALID_POSTAL_CODE_MSG, onTheMinute), "UTF-8");
+        String escaped = new String(renderer.render("W-\"9\"", "Line\nbreak é", onTheMinute), "UTF-8");
+
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(new WeatherErrorResponse(WeatherException.INVALID_POSTAL_CODE_MSG, WeatherException.INVALID_POSTAL_CODE_ERROR, withNanos)), first);
+        assertEquals(objectMapper.writeValueAsString(new WeatherErrorResponse(WeatherException.INVALID_POSTAL_CODE_MSG, WeatherException.INVALID_POSTAL_CODE_ERROR, onTheMinute)), second);
+        assertEquals(objectMapper.writeValueAsString(new WeatherErrorResponse("Line\nbreak é", "W-\"9\"", onTheMinute)), escaped);
+    }
+
+    @Test
+    void testRender_WithoutTimestamp_StampsNowAndReusesBodyWithinMillisecond() throws Exception {
+        // Arrange
+        Instant now = Instant.parse("2024-12-26T10:15:30.123Z");
+        WeatherErrorRenderer renderer = new WeatherErrorRenderer(Clock.fixed(now, ZoneOffset.UTC));
+
+        // Act
+        byte[] first = renderer.render(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_REQUEST_MSG, null);
+        byte[] second = renderer.render(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_REQUEST_MSG, null);
+
+        // Assert
+        assertSame(first, second);
+        WeatherErrorResponse response = objectMapper.readValue(first, WeatherErrorResponse.class);
+        assertEquals(WeatherException.INVALID_REQUEST_ERROR, response.getCode());
+        assertEquals(WeatherException.INVALID_REQUEST_MSG, response.getMessage());
+        assertEquals(LocalDateTime.of(2024, 12, 26, 10, 15, 30, 123_000_000), response.getTimestamp());
+    }
+
+    @Test
+    void testRender_SameMessageWithOtherCode() throws Exception {
+        // Arrange
+        WeatherErrorRenderer renderer = new WeatherErrorRenderer(Clock.systemUTC());
+        renderer.render(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG, null);
+
+        // Act
+        byte[] body = renderer.render(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG, null);
+
+        // Assert
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, objectMapper.readValue(body, WeatherErrorResponse.class).getCode());
+    }
+}
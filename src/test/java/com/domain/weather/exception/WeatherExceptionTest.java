@@ -0,0 +1,62 @@
+package com.domain.weather.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherException`.
+ * Contains test methods to verify stackless and cached exceptions.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherExceptionTest {
+
+    @Test
+    void testStackless_HasTimestampButNoStackTrace() {
+        // Act
+        WeatherException stackless = WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG);
+        WeatherException full = new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now());
+
+        // Assert
+        assertEquals(0, stackless.getStackTrace().length);
+        assertNotNull(stackless.getTimestamp());
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR_MSG, stackless.getMessage());
+        assertTrue(full.getStackTrace().length > 0);
+    }
+
+    @Test
+    void testCached_ReturnsOneImmutableInstancePerMessage() {
+        // Act
+        WeatherException first = WeatherException.cached(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_REQUEST_MSG);
+        WeatherException second = WeatherException.cached(WeatherException.INVALID_REQUEST_ERROR, WeatherException.INVALID_REQUEST_MSG);
+        first.addSuppressed(new IllegalStateException("ignored"));
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(WeatherException.INVALID_REQUEST_ERROR, first.getCode());
+        assertNull(first.getTimestamp());
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals(0, first.getSuppressed().length);
+        assertThrows(UnsupportedOperationException.class, () -> first.setTimestamp(LocalDateTime.now()));
+        assertThrows(UnsupportedOperationException.class, () -> first.setCode(WeatherException.NOT_FOUND_ERROR));
+    }
+
+    @Test
+    void testCached_OtherCodeForSameMessageIsNotShared() {
+        // Arrange
+        WeatherException shared = WeatherException.cached(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG);
+
+        // Act
+        WeatherException other = WeatherException.cached(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG);
+
+        // Assert
+        assertNotSame(shared, other);
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, other.getCode());
+        assertNotNull(other.getTimestamp());
+    }
+}
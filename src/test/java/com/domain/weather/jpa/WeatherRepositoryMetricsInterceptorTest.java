@@ -0,0 +1,103 @@
+package com.domain.weather.jpa;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherRepositoryMetricsInterceptor`.
+ * Contains test methods to verify the rows recorded per repository method, through a proxied stand-in repository.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherRepositoryMetricsInterceptorTest {
+
+    interface Rows {
+
+        List<String> findAll();
+
+        Optional<String> findFirst();
+
+        Stream<String> streamAll();
+
+        void deleteAll();
+    }
+
+    private SimpleMeterRegistry registry;
+
+    private Rows rows;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Rows target = new Rows() {
+            @Override
+            public List<String> findAll() {
+                return Arrays.asList("a", "b", "c");
+            }
+
+            @Override
+            public Optional<String> findFirst() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Stream<String> streamAll() {
+                return Stream.of("a", "b");
+            }
+
+            @Override
+            public void deleteAll() {
+            }
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(Rows.class);
+        proxyFactory.addAdvice(new WeatherRepositoryMetricsInterceptor("Rows", () -> registry));
+        rows = (Rows) proxyFactory.getProxy();
+    }
+
+    @Test
+    void testInvoke_RecordsCollectionSizeAndEmptyOptional() {
+        // Act
+        rows.findAll();
+        rows.findAll();
+        rows.findFirst();
+
+        // Assert
+        assertEquals(2, registry.get("weather.repository.rows").tag("method", "findAll").summary().count());
+        assertEquals(6, registry.get("weather.repository.rows").tag("method", "findAll").tag("repository", "Rows").summary().totalAmount());
+        assertEquals(0, registry.get("weather.repository.rows").tag("method", "findFirst").summary().totalAmount());
+    }
+
+    @Test
+    void testInvoke_RecordsStreamRowsWhenClosed() {
+        // Act
+        try (Stream<String> stream = rows.streamAll()) {
+            assertEquals(2, stream.collect(Collectors.toList()).size());
+            assertEquals(0, registry.get("weather.repository.rows").tag("method", "streamAll").summary().count());
+        }
+
+        // Assert
+        assertEquals(2, registry.get("weather.repository.rows").tag("method", "streamAll").summary().totalAmount());
+    }
+
+    @Test
+    void testInvoke_SkipsVoidMethods() {
+        // Act
+        rows.deleteAll();
+
+        // Assert
+        assertNull(registry.find("weather.repository.rows").tag("method", "deleteAll").summary());
+    }
+}
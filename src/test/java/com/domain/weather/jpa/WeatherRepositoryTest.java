@@ -0,0 +1,180 @@
+package com.domain.weather.jpa;
+
+import com.domain.weather.entity.WeatherDetails;
+import com.domain.weather.entity.WeatherEntity;
+import com.domain.weather.model.WeatherSummaryDTO;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherRepository`.
+ * Contains test methods to verify the keyset-paginated history queries and their fetch plan
+ * against the embedded database.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class WeatherRepositoryTest {
+
+    @Autowired
+    private WeatherRepository weatherRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            ids.add(weatherRepository.save(weatherEntity(i % 2 == 0 ? "alice" : "bob", "1234" + i)).getId());
+        }
+    }
+
+    @Test
+    void testFindHistory_WalksAllRowsNewestFirst() {
+        // Arrange
+        List<Long> seen = new ArrayList<>();
+        long cursor = Long.MAX_VALUE;
+
+        // Act
+        List<WeatherSummaryDTO.WeatherHistory> page;
+        do {
+            page = weatherRepository.findHistory(cursor, PageRequest.of(0, 2));
+            page.forEach(history -> seen.add(history.getId()));
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 2);
+
+        // Assert
+        List<Long> expected = new ArrayList<>(ids);
+        expected.sort((a, b) -> Long.compare(b, a));
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void testFindHistoryByUser_FiltersAndStaysBelowCursor() {
+        // Act
+        List<WeatherSummaryDTO.WeatherHistory> page = weatherRepository.findHistoryByUser("alice", ids.get(4), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(ids.get(2), ids.get(0)), page.stream().map(WeatherSummaryDTO.WeatherHistory::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testFindHistoryByPostalCode_MatchesPostalCode() {
+        // Act
+        List<WeatherSummaryDTO.WeatherHistory> page = weatherRepository.findHistoryByPostalCode("12341", Long.MAX_VALUE, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(1, page.size());
+        assertEquals(ids.get(1), page.get(0).getId());
+    }
+
+    @Test
+    void testFindHistory_ProjectsRowsWithoutHydratingEntities() {
+        // Arrange
+        for (int i = 0; i < 1000; i++) {
+            weatherRepository.save(weatherEntity("carol", "54321"));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<WeatherSummaryDTO.WeatherHistory> history = weatherRepository.findHistoryByUser("carol", Long.MAX_VALUE, PageRequest.of(0, 1001));
+
+        // Assert
+        assertEquals(1000, history.size());
+        assertEquals("New York", history.get(999).getLocation().getName());
+        assertEquals(22, history.get(0).getWeather().getTemperature());
+        assertTrue(history.get(0).getId() > history.get(1).getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testFindHistoryByUserAndPostalCode_MatchesBothFilters() {
+        // Act
+        List<WeatherSummaryDTO.WeatherHistory> history = weatherRepository.findHistoryByUserAndPostalCode("alice", "12342", Long.MAX_VALUE, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(1, history.size());
+        assertEquals(ids.get(2), history.get(0).getId());
+    }
+
+    @Test
+    void testStreamHistoryByUser_StreamsNewestFirst() {
+        // Act
+        List<Long> streamed;
+        try (Stream<WeatherSummaryDTO.WeatherHistory> history = weatherRepository.streamHistoryByUser("alice")) {
+            streamed = history.map(WeatherSummaryDTO.WeatherHistory::getId).collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(List.of(ids.get(4), ids.get(2), ids.get(0)), streamed);
+    }
+
+    @Test
+    void testSaveAll_InsertsAreBatched() {
+        // Arrange
+        List<WeatherEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            entities.add(weatherEntity("dave", "67890"));
+        }
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        weatherRepository.saveAll(entities);
+        testEntityManager.flush();
+
+        // Assert
+        // 400 rows: a handful of batched inserts plus the pooled sequence calls, not one statement per row
+        assertTrue(statistics.getPrepareStatementCount() < 40, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(200, weatherRepository.findByUser("dave").size());
+    }
+
+    private static WeatherEntity weatherEntity(String user, String postalCode) {
+        WeatherDetails weatherDetails = new WeatherDetails();
+        weatherDetails.setCity("New York");
+        weatherDetails.setPrecipitation("0");
+        weatherDetails.setTemperature(22);
+        weatherDetails.setFeelsLike(21);
+        weatherDetails.setHumidity(65);
+        weatherDetails.setCloudCover(10);
+        weatherDetails.setPressure(1015);
+        weatherDetails.setVisibility(10);
+        weatherDetails.setWindSpeed(10);
+        weatherDetails.setWindDegree(180);
+        weatherDetails.setUvIndex(5);
+        WeatherEntity weatherEntity = new WeatherEntity();
+        weatherEntity.setUser(user);
+        weatherEntity.setPostalCode(postalCode);
+        weatherEntity.setTimestamp(LocalDateTime.now());
+        weatherEntity.setWeatherData(weatherDetails);
+        return weatherEntity;
+    }
+}
@@ -4,19 +4,52 @@ import com.domain.weather.entity.WeatherEntity;
 import com.domain.weather.exception.WeatherException;
 import com.domain.weather.jpa.WeatherRepository;
 import com.domain.weather.model.*;
+import com.domain.weather.utility.VirtualThreads;
+import com.domain.weather.utility.WeatherBulkhead;
+import com.domain.weather.utility.WeatherCircuitBreaker;
+import com.domain.weather.utility.WeatherGazetteer;
+import com.domain.weather.utility.WeatherMetrics;
+import com.domain.weather.utility.WeatherNegativeCache;
+import com.domain.weather.utility.WeatherPayloadSampler;
+import com.domain.weather.utility.WeatherRateLimiter;
+import com.domain.weather.utility.WeatherRequestCoalescer;
+import com.domain.weather.utility.WeatherResponseCache;
 import com.domain.weather.utility.WeatherUtility;
+import com.domain.weather.utility.WeatherWebClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +66,44 @@ public class WeatherServiceImplTest {
     @Mock
     private WeatherRepository weatherRepository;
 
+    @Mock
+    private WeatherWebClient weatherWebClient;
+
+    @Spy
+    private WeatherRequestCoalescer weatherRequestCoalescer = new WeatherRequestCoalescer();
+
+    @Spy
+    private WeatherResponseCache weatherResponseCache = new WeatherResponseCache(300, 100, 1_000_000);
+
+    @Mock
+    private WeatherWriteBehindPersister weatherWriteBehindPersister;
+
+    @Spy
+    private WeatherUpstreamExecutor weatherUpstreamExecutor = new WeatherUpstreamExecutor(2, 10, 5000);
+
+    @Spy
+    private WeatherCircuitBreaker weatherCircuitBreaker = new WeatherCircuitBreaker(true, 10, 2, 50, 100, 5000, 30_000, 1);
+
+    @Spy
+    private WeatherBulkhead weatherBulkhead = new WeatherBulkhead(10, 100);
+
+    @Spy
+    private WeatherRateLimiter weatherRateLimiter = new WeatherRateLimiter(true, 6000, 100, 100, 0, true);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private WeatherMetrics weatherMetrics = new WeatherMetrics(meterRegistry);
+
+    @Spy
+    private WeatherPayloadSampler weatherPayloadSampler = new WeatherPayloadSampler(1.0, 256);
+
+    @Spy
+    private WeatherNegativeCache weatherNegativeCache = new WeatherNegativeCache(60, 100);
+
+    @Spy
+    private WeatherGazetteer weatherGazetteer = new WeatherGazetteer(new ClassPathResource("weather-gazetteer.bin"), false);
+
     @InjectMocks
     private WeatherServiceImpl weatherService;
 
@@ -96,7 +167,7 @@ public class WeatherServiceImplTest {
         request.setUser("testUser");
 
         try (MockedStatic<WeatherUtility> mockedUtil = mockStatic(WeatherUtility.class)) {
-            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(request))
+            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(weatherWebClient, request))
                     .thenReturn(weatherResponseDTO);
 
             WeatherSummaryDTO result = weatherService.getWeather("testUser", "12345");
@@ -112,7 +183,7 @@ public class WeatherServiceImplTest {
         request.setUser("testUser");
 
         try (MockedStatic<WeatherUtility> mockedUtil = mockStatic(WeatherUtility.class)) {
-            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(request))
+            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(weatherWebClient, request))
                     .thenReturn(weatherResponseDTO);
 
             WeatherSummaryDTO result = weatherService.getWeather("testUser", "");
@@ -128,7 +199,7 @@ public class WeatherServiceImplTest {
         request.setPostalCode("12345");
 
         try (MockedStatic<WeatherUtility> mockedUtil = mockStatic(WeatherUtility.class)) {
-            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(request))
+            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(weatherWebClient, request))
                     .thenReturn(weatherResponseDTO);
 
             WeatherSummaryDTO result = weatherService.getWeather("", "12345");
@@ -139,11 +210,92 @@ public class WeatherServiceImplTest {
     }
 
 
+    @Test
+    void testGetWeather_FullPageReturnsNextCursor() {
+        // Arrange
+        ReflectionTestUtils.setField(weatherService, "defaultHistoryLimit", 2);
+        ReflectionTestUtils.setField(weatherService, "maxHistoryLimit", 500);
+        when(weatherRepository.findHistory(Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(historyEntry(30L), historyEntry(20L), historyEntry(10L)));
+
+        // Act
+        WeatherSummaryDTO result = weatherService.getWeather(null, null);
+
+        // Assert
+        assertEquals(2, result.getHistory().size());
+        assertEquals(WeatherUtility.encodeHistoryCursor(20L), result.getNextCursor());
+    }
+
+    @Test
+    void testGetWeather_CursorContinuesBelowLastId() {
+        // Arrange
+        ReflectionTestUtils.setField(weatherService, "maxHistoryLimit", 500);
+        when(weatherRepository.findHistoryByUser("testUser", 20L, PageRequest.of(0, 6)))
+                .thenReturn(Collections.singletonList(historyEntry(10L)));
+
+        // Act
+        WeatherSummaryDTO result = weatherService.getWeather("testUser", null, WeatherUtility.encodeHistoryCursor(20L), 5);
+
+        // Assert
+        assertEquals(1, result.getHistory().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetWeather_LimitIsCappedAtMaximum() {
+        // Arrange
+        ReflectionTestUtils.setField(weatherService, "maxHistoryLimit", 100);
+        when(weatherRepository.findHistoryByPostalCode("12345", Long.MAX_VALUE, PageRequest.of(0, 101)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        WeatherSummaryDTO result = weatherService.getWeather(null, "12345", null, 10_000);
+
+        // Assert
+        assertTrue(result.getHistory().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetWeather_InvalidLimit() {
+        // Act & Assert
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherService.getWeather("testUser", "12345", null, 0));
+        assertEquals(WeatherException.INVALID_REQUEST_ERROR, exception.getCode());
+        verifyNoInteractions(weatherRepository);
+    }
+
+    @Test
+    void testExportWeather_WritesOneLinePerRowAndClosesStream() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(weatherRepository.streamHistoryByPostalCode("12345"))
+                .thenReturn(Stream.of(historyEntry(30L), historyEntry(20L), historyEntry(10L)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = weatherService.exportWeather(null, "12345", out);
+
+        // Assert
+        String body = out.toString(StandardCharsets.UTF_8);
+        String[] lines = body.split("\n");
+        assertEquals(3, exported);
+        assertEquals(3, lines.length);
+        assertTrue(body.endsWith("\n"));
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String line : lines) {
+            assertTrue(line.startsWith("{\"location\":{"), line);
+            assertTrue(objectMapper.readTree(line).isObject(), line);
+            assertFalse(line.contains("\"id\""));
+        }
+        assertTrue(closed.get());
+    }
+
     @Test
     void testSaveWeather_Success() throws WeatherException {
         // Arrange
         try (var mockedUtil = mockStatic(WeatherUtility.class)) {
-            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(weatherRequestDTO)).thenReturn(weatherResponseDTO);
+            mockedUtil.when(() -> WeatherUtility.normalizePostalCode("12345")).thenReturn("12345");
+            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(eq(weatherWebClient), eq("12345"), any())).thenReturn(weatherResponseDTO);
             mockedUtil.when(() -> WeatherUtility.convertWeatherResponseToWeatherEntity(weatherResponseDTO)).thenReturn(weatherEntity);
             mockedUtil.when(() -> WeatherUtility.convertWeatherEntityToWeatherHistory(weatherEntity)).thenReturn(new WeatherSummaryDTO.WeatherHistory());
 
@@ -153,6 +305,8 @@ public class WeatherServiceImplTest {
             // Assert
             assertNotNull(result);
             verify(weatherRepository).save(any(WeatherEntity.class));
+            assertEquals(1, serviceCalls("saveWeather", "success"));
+            assertEquals(0, serviceCalls("saveWeather", "error"));
         }
     }
 
@@ -160,11 +314,325 @@ public class WeatherServiceImplTest {
     void testSaveWeather_ThrowsWeatherException() {
         // Arrange
         try (var mockedUtil = mockStatic(WeatherUtility.class)) {
-            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(weatherRequestDTO)).thenThrow(new WeatherException("API_ERROR", "API call failed", null));
+            mockedUtil.when(() -> WeatherUtility.normalizePostalCode("12345")).thenReturn("12345");
+            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(eq(weatherWebClient), eq("12345"), any())).thenThrow(new WeatherException("API_ERROR", "API call failed", null));
 
             // Act & Assert
             assertThrows(WeatherException.class, () -> weatherService.saveWeather(weatherRequestDTO));
             verify(weatherRepository, never()).save(any(WeatherEntity.class));
+            assertEquals(1, serviceCalls("saveWeather", "error"));
         }
     }
+
+    @Test
+    void testSaveWeather_WriteBehindEnabled() throws WeatherException {
+        // Arrange
+        when(weatherWriteBehindPersister.isEnabled()).thenReturn(true);
+        try (var mockedUtil = mockStatic(WeatherUtility.class)) {
+            mockedUtil.when(() -> WeatherUtility.normalizePostalCode("12345")).thenReturn("12345");
+            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(eq(weatherWebClient), eq("12345"), any())).thenReturn(weatherResponseDTO);
+            mockedUtil.when(() -> WeatherUtility.convertWeatherResponseToWeatherEntity(weatherResponseDTO)).thenReturn(weatherEntity);
+
+            // Act
+            weatherService.saveWeather(weatherRequestDTO);
+
+            // Assert
+            verify(weatherWriteBehindPersister).persist(weatherEntity);
+            verify(weatherRepository, never()).save(any(WeatherEntity.class));
+        }
+    }
+
+    @Test
+    void testSaveWeatherBulk_DedupesPostalCodesAndReportsPerItem() throws WeatherException {
+        // Arrange
+        configureBulk(10, 4, 2);
+        when(weatherWebClient.callWeatherAPI(eq("12345"), any())).thenReturn(weatherResponseDTO);
+        when(weatherWebClient.callWeatherAPI(eq("54321"), any())).thenThrow(
+                new WeatherException(WeatherException.INVALID_ACCESS_KEY, WeatherException.INVALID_ACCESS_KEY_MSG, LocalDateTime.now()));
+        List<WeatherRequestDTO> requests = Arrays.asList(
+                bulkRequest("alice", "12345"),
+                bulkRequest("bob", "12345-6789"),
+                bulkRequest("carol", "123"),
+                bulkRequest("dave", "54321"),
+                bulkRequest("erin", "12345"));
+
+        // Act
+        WeatherBulkResponseDTO result = weatherService.saveWeatherBulk(requests);
+
+        // Assert
+        verify(weatherWebClient, times(1)).callWeatherAPI(eq("12345"), any());
+        verify(weatherWebClient, times(1)).callWeatherAPI(eq("54321"), any());
+        verify(weatherRepository).saveAll(argThat((List<WeatherEntity> batch) -> batch.size() == 2));
+        verify(weatherRepository).saveAll(argThat((List<WeatherEntity> batch) -> batch.size() == 1));
+        assertEquals(3, result.getSaved());
+        assertEquals(2, result.getFailed());
+        assertEquals(5, result.getResults().size());
+        assertNotNull(result.getResults().get(0).getWeather());
+        assertEquals("bob", result.getResults().get(1).getUser());
+        assertNotNull(result.getResults().get(1).getWeather());
+        assertEquals(WeatherException.INVALID_REQUEST_ERROR, result.getResults().get(2).getError().getCode());
+        assertEquals(WeatherException.INVALID_ACCESS_KEY, result.getResults().get(3).getError().getCode());
+        assertNotNull(result.getResults().get(4).getWeather());
+        assertEquals(1, weatherMetrics.getExceptionCount(WeatherException.INVALID_REQUEST_ERROR));
+        assertEquals(1, weatherMetrics.getExceptionCount(WeatherException.INVALID_ACCESS_KEY));
+        assertEquals(1, serviceCalls("saveWeatherBulk", "success"));
+    }
+
+    @Test
+    void testSaveWeatherBulk_FailedBatchIsRetriedPerItem() throws WeatherException {
+        // Arrange
+        configureBulk(10, 4, 50);
+        when(weatherWebClient.callWeatherAPI(eq("12345"), any())).thenReturn(weatherResponseDTO);
+        when(weatherRepository.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        when(weatherRepository.save(any(WeatherEntity.class))).thenAnswer(invocation -> {
+            WeatherEntity entity = invocation.getArgument(0);
+            if ("bob".equals(entity.getUser())) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return entity;
+        });
+
+        // Act
+        WeatherBulkResponseDTO result = weatherService.saveWeatherBulk(Arrays.asList(bulkRequest("alice", "12345"), bulkRequest("bob", "12345")));
+
+        // Assert
+        assertEquals(1, result.getSaved());
+        assertNotNull(result.getResults().get(0).getWeather());
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, result.getResults().get(1).getError().getCode());
+    }
+
+    @Test
+    void testSaveWeatherBulk_FetchesShareUpstreamExecutorWithinFanOut() throws WeatherException {
+        // Arrange
+        configureBulk(10, 1, 50);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        when(weatherWebClient.callWeatherAPI(any(), any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread().getName());
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return weatherResponseDTO;
+        });
+
+        // Act
+        WeatherBulkResponseDTO result = weatherService.saveWeatherBulk(Arrays.asList(
+                bulkRequest("alice", "11111"), bulkRequest("bob", "22222"), bulkRequest("carol", "33333")));
+
+        // Assert
+        assertEquals(3, result.getSaved());
+        assertEquals(1, maxRunning.get());
+        assertEquals(3, weatherUpstreamExecutor.getSubmitted());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("weather-upstream-")), threads.toString());
+    }
+
+    @Test
+    void testSaveWeatherBulk_VirtualModeBoundsFetchesWithoutPool() throws WeatherException {
+        // Arrange
+        assumeTrue(VirtualThreads.isSupported(), "needs JDK 21 or later");
+        WeatherUpstreamExecutor virtualExecutor = new WeatherUpstreamExecutor(10, 10, 5000, true, 10);
+        ReflectionTestUtils.setField(weatherService, "weatherUpstreamExecutor", virtualExecutor);
+        configureBulk(10, 2, 50);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(weatherWebClient.callWeatherAPI(any(), any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return weatherResponseDTO;
+        });
+
+        try {
+            // Act
+            WeatherBulkResponseDTO result = weatherService.saveWeatherBulk(Arrays.asList(bulkRequest("alice", "11111"),
+                    bulkRequest("bob", "22222"), bulkRequest("carol", "33333"), bulkRequest("dave", "44444")));
+
+            // Assert
+            assertEquals(4, result.getSaved());
+            assertTrue(maxRunning.get() <= 2, "fetches in flight: " + maxRunning.get());
+            assertEquals(4, virtualExecutor.getSubmitted());
+        } finally {
+            virtualExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testSaveWeatherBulk_TooManyItems() {
+        // Arrange
+        configureBulk(1, 4, 50);
+
+        // Act & Assert
+        WeatherException exception = assertThrows(WeatherException.class,
+                () -> weatherService.saveWeatherBulk(Arrays.asList(bulkRequest("alice", "12345"), bulkRequest("bob", "12345"))));
+        assertEquals(WeatherException.INVALID_REQUEST_ERROR, exception.getCode());
+        verifyNoInteractions(weatherWebClient, weatherRepository);
+    }
+
+    @Test
+    void testSaveWeatherAsync_SavesOnUpstreamThread() throws Exception {
+        // Arrange
+        AtomicReference<String> savingThread = new AtomicReference<>();
+        when(weatherWebClient.callWeatherAPI(eq("12345"), any())).thenReturn(weatherResponseDTO);
+        when(weatherRepository.save(any(WeatherEntity.class))).thenAnswer(invocation -> {
+            savingThread.set(Thread.currentThread().getName());
+            return invocation.getArgument(0);
+        });
+
+        // Act
+        WeatherSummaryDTO.WeatherHistory result = weatherService.saveWeatherAsync(weatherRequestDTO).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(savingThread.get().startsWith("weather-upstream-"), savingThread.get());
+    }
+
+    @Test
+    void testSaveWeatherAsync_UpstreamFailureFailsFuture() throws WeatherException {
+        // Arrange
+        when(weatherWebClient.callWeatherAPI(eq("12345"), any())).thenThrow(
+                new WeatherException(WeatherException.INVALID_ACCESS_KEY, WeatherException.INVALID_ACCESS_KEY_MSG, LocalDateTime.now()));
+
+        // Act
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> weatherService.saveWeatherAsync(weatherRequestDTO).get(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertTrue(exception.getCause() instanceof WeatherException);
+        assertEquals(WeatherException.INVALID_ACCESS_KEY, ((WeatherException) exception.getCause()).getCode());
+        verify(weatherRepository, never()).save(any());
+    }
+
+    @Test
+    void testSaveWeather_UnknownPostalCodeFailsLocallyOnRetry() throws WeatherException {
+        // Arrange
+        when(weatherWebClient.callWeatherAPI(eq("00000"), any())).thenThrow(
+                WeatherException.cached(WeatherException.NOT_FOUND_ERROR, WeatherException.POSTAL_CODE_NOT_FOUND_MSG));
+        WeatherException first = assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "00000")));
+
+        // Act
+        WeatherException retried = assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "00000")));
+
+        // Assert
+        assertEquals(WeatherException.NOT_FOUND_ERROR, first.getCode());
+        assertEquals(WeatherException.NOT_FOUND_ERROR, retried.getCode());
+        verify(weatherWebClient, times(1)).callWeatherAPI(eq("00000"), any());
+        assertEquals(1, weatherNegativeCache.getHits());
+        assertEquals(0, weatherCircuitBreaker.getFailedCalls());
+    }
+
+    @Test
+    void testSaveWeather_UpstreamFailureIsNotRememberedAndCountsForTheBreaker() throws WeatherException {
+        // Arrange
+        when(weatherWebClient.callWeatherAPI(eq("00000"), any())).thenThrow(
+                WeatherException.stackless(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG));
+        assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "00000")));
+
+        // Act
+        WeatherException retried = assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "00000")));
+
+        // Assert
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, retried.getCode());
+        verify(weatherWebClient, times(2)).callWeatherAPI(eq("00000"), any());
+        assertEquals(0, weatherNegativeCache.getHits());
+        assertEquals(2, weatherCircuitBreaker.getFailedCalls());
+    }
+
+    @Test
+    void testSaveWeather_OpenBreakerFailsFastWithoutCallingUpstream() throws WeatherException {
+        // Arrange
+        when(weatherWebClient.callWeatherAPI(any(), any())).thenThrow(
+                new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now()));
+        assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "11111")));
+        assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "22222")));
+
+        // Act
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "33333")));
+
+        // Assert
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, exception.getCode());
+        verify(weatherWebClient, times(2)).callWeatherAPI(any(), any());
+        verify(weatherRepository, never()).save(any());
+    }
+
+    @Test
+    void testSaveWeather_UsedUpQuotaFailsFastWithoutCallingUpstream() throws WeatherException {
+        // Arrange
+        ReflectionTestUtils.setField(weatherService, "weatherRateLimiter", new WeatherRateLimiter(true, 6000, 100, 100, 1, false));
+        when(weatherWebClient.callWeatherAPI(any(), any())).thenThrow(
+                new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now()));
+        assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("alice", "11111")));
+
+        // Act
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherService.saveWeather(bulkRequest("bob", "22222")));
+
+        // Assert
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, exception.getCode());
+        verify(weatherWebClient, times(1)).callWeatherAPI(any(), any());
+    }
+
+    @Test
+    void testSaveWeather_ExtraAttemptsAreChargedToTheRateLimiter() throws WeatherException {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 6000, 100, 100, 2, false);
+        ReflectionTestUtils.setField(weatherService, "weatherRateLimiter", limiter);
+        List<Boolean> extraAttempts = new CopyOnWriteArrayList<>();
+        when(weatherWebClient.callWeatherAPI(eq("11111"), any())).thenAnswer(invocation -> {
+            WeatherWebClient.AttemptGate gate = invocation.getArgument(1);
+            extraAttempts.add(gate.tryAcquire());
+            extraAttempts.add(gate.tryAcquire());
+            return weatherResponseDTO;
+        });
+
+        // Act
+        weatherService.saveWeather(bulkRequest("alice", "11111"));
+
+        // Assert
+        assertEquals(Arrays.asList(true, false), extraAttempts);
+        assertEquals(2, limiter.getQuotaUsed());
+    }
+
+    @Test
+    void testSaveWeather_CachedResponseSkipsUpstream() throws WeatherException {
+        // Arrange
+        try (var mockedUtil = mockStatic(WeatherUtility.class)) {
+            mockedUtil.when(() -> WeatherUtility.normalizePostalCode("12345")).thenReturn("12345");
+            mockedUtil.when(() -> WeatherUtility.fetchWeatherFromAPI(eq(weatherWebClient), eq("12345"), any())).thenReturn(weatherResponseDTO);
+            mockedUtil.when(() -> WeatherUtility.convertWeatherResponseToWeatherEntity(weatherResponseDTO)).thenReturn(weatherEntity);
+
+            // Act
+            weatherService.saveWeather(weatherRequestDTO);
+            weatherService.saveWeather(weatherRequestDTO);
+
+            // Assert
+            mockedUtil.verify(() -> WeatherUtility.fetchWeatherFromAPI(eq(weatherWebClient), eq("12345"), any()), times(1));
+            verify(weatherRepository, times(2)).save(any(WeatherEntity.class));
+            assertEquals(1, weatherResponseCache.getHits());
+        }
+    }
+
+    private void configureBulk(int maxItems, int fetchConcurrency, int batchSize) {
+        ReflectionTestUtils.setField(weatherService, "maxBulkItems", maxItems);
+        ReflectionTestUtils.setField(weatherService, "bulkFetchConcurrency", fetchConcurrency);
+        ReflectionTestUtils.setField(weatherService, "bulkBatchSize", batchSize);
+    }
+
+    private long serviceCalls(String method, String outcome) {
+        return meterRegistry.get("weather.service.calls").tag("method", method).tag("outcome", outcome).timer().count();
+    }
+
+    private static WeatherRequestDTO bulkRequest(String user, String postalCode) {
+        WeatherRequestDTO request = new WeatherRequestDTO();
+        request.setUser(user);
+        request.setPostalCode(postalCode);
+        return request;
+    }
+
+    private WeatherSummaryDTO.WeatherHistory historyEntry(Long id) {
+        WeatherSummaryDTO.WeatherHistory history = new WeatherSummaryDTO.WeatherHistory();
+        history.setId(id);
+        history.setLocation(weatherResponseDTO.getLocation());
+        history.setWeather(weatherResponseDTO.getCurrent());
+        return history;
+    }
 }
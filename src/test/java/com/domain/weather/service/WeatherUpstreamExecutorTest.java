@@ -0,0 +1,182 @@
+package com.domain.weather.service;
+
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.utility.VirtualThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Represents a test class for the `WeatherUpstreamExecutor`.
+ * Contains test methods to verify that work runs off the calling thread, that a saturated pool
+ * rejects immediately, and that timeouts and failures surface as WeatherExceptions.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherUpstreamExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private WeatherUpstreamExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSubmit_RunsOnUpstreamThread() throws Exception {
+        // Arrange
+        executor = new WeatherUpstreamExecutor(2, 10, 5000);
+
+        // Act
+        String threadName = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(threadName.startsWith("weather-upstream-"), threadName);
+        assertEquals(1, executor.getSubmitted());
+    }
+
+    @Test
+    public void testSubmit_SaturatedPoolRejectsImmediately() throws Exception {
+        // Arrange
+        executor = new WeatherUpstreamExecutor(1, 1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            return await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> await(release));
+
+        // Act
+        CompletableFuture<Boolean> rejected = executor.submit(() -> true);
+
+        // Assert
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, causeOf(rejected).getCode());
+        assertEquals(1, executor.getRejected());
+        assertEquals(1, executor.getQueueDepth());
+    }
+
+    @Test
+    public void testBindTo_PublishesTasksAndQueueDepth() throws Exception {
+        // Arrange
+        executor = new WeatherUpstreamExecutor(1, 1, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        executor.bindTo(registry);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            return await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> await(release));
+
+        // Act
+        executor.submit(() -> true);
+
+        // Assert
+        assertEquals(2, registry.get("weather.async.tasks").tag("outcome", "submitted").functionCounter().count());
+        assertEquals(1, registry.get("weather.async.tasks").tag("outcome", "rejected").functionCounter().count());
+        assertEquals(0, registry.get("weather.async.tasks").tag("outcome", "timed_out").functionCounter().count());
+        assertEquals(1, registry.get("weather.async.active").gauge().value());
+        assertEquals(1, registry.get("weather.async.queue.depth").gauge().value());
+    }
+
+    @Test
+    public void testSubmit_SlowTaskTimesOut() {
+        // Arrange
+        executor = new WeatherUpstreamExecutor(1, 1, 50);
+
+        // Act
+        CompletableFuture<Boolean> slow = executor.submit(() -> await(release));
+
+        // Assert
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, causeOf(slow).getCode());
+        assertEquals(1, executor.getTimedOut());
+    }
+
+    @Test
+    public void testSubmit_FailuresSurfaceAsWeatherExceptions() {
+        // Arrange
+        executor = new WeatherUpstreamExecutor(1, 1, 5000);
+
+        // Act
+        CompletableFuture<Object> weatherFailure = executor.submit(() -> {
+            throw new WeatherException(WeatherException.INVALID_ACCESS_KEY, WeatherException.INVALID_ACCESS_KEY_MSG, LocalDateTime.now());
+        });
+        CompletableFuture<Object> unexpectedFailure = executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        // Assert
+        assertEquals(WeatherException.INVALID_ACCESS_KEY, causeOf(weatherFailure).getCode());
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, causeOf(unexpectedFailure).getCode());
+    }
+
+    @Test
+    public void testSubmit_VirtualModeFallsBackWithoutJdkSupport() throws Exception {
+        // Arrange
+        executor = new WeatherUpstreamExecutor(2, 10, 5000, true, 10000);
+
+        // Act
+        String threadName = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(VirtualThreads.isSupported(), executor.isVirtual());
+        assertTrue(threadName.startsWith("weather-upstream-"), threadName);
+    }
+
+    @Test
+    public void testSubmit_VirtualModeCapsTasksInFlight() throws Exception {
+        // Arrange
+        assumeTrue(VirtualThreads.isSupported(), "needs JDK 21 or later");
+        executor = new WeatherUpstreamExecutor(1, 1, 0, true, 2);
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> {
+                started.countDown();
+                return await(release);
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        CompletableFuture<Boolean> rejected = executor.submit(() -> true);
+
+        // Assert
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, causeOf(rejected).getCode());
+        assertEquals(2, executor.getActive());
+        assertEquals(0, executor.getQueueDepth());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static WeatherException causeOf(CompletableFuture<?> future) {
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof WeatherException, String.valueOf(exception.getCause()));
+        return (WeatherException) exception.getCause();
+    }
+}
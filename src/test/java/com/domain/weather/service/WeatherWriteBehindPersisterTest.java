@@ -0,0 +1,234 @@
+package com.domain.weather.service;
+
+import com.domain.weather.entity.WeatherEntity;
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.jpa.WeatherRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Represents a test class for the `WeatherWriteBehindPersister`.
+ * Contains test methods to verify batching, durability, backpressure, the drain on shutdown and the metrics.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherWriteBehindPersisterTest {
+
+    private final WeatherRepository weatherRepository = mock(WeatherRepository.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private WeatherWriteBehindPersister persister;
+
+    private WeatherWriteBehindPersister createPersister(int queueCapacity, int batchSize, String durability) {
+        when(weatherRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<WeatherEntity> entities = invocation.getArgument(0);
+            batchSizes.add(entities.size());
+            return entities;
+        });
+        persister = new WeatherWriteBehindPersister(weatherRepository, transactionManager, true,
+                queueCapacity, batchSize, 100, 20, durability, 5000);
+        return persister;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (persister != null) {
+            persister.shutdown();
+        }
+    }
+
+    @Test
+    public void testPersist_EnqueuedSavesAreInsertedInBatches() {
+        // Arrange
+        WeatherWriteBehindPersister persister = createPersister(100, 10, "enqueued");
+
+        // Act
+        for (int i = 0; i < 25; i++) {
+            persister.persist(weatherEntity("1000" + i));
+        }
+        persister.shutdown();
+
+        // Assert
+        assertEquals(25, persister.getFlushed());
+        assertEquals(25, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        assertTrue(persister.getBatches() < 25, "saves should be grouped, got " + batchSizes);
+        verify(weatherRepository, never()).save(any());
+    }
+
+    @Test
+    public void testPersist_FlushedDurabilityReturnsAfterCommit() {
+        // Arrange
+        WeatherWriteBehindPersister persister = createPersister(100, 10, "flushed");
+
+        // Act
+        persister.persist(weatherEntity("12345"));
+
+        // Assert
+        assertEquals(1, persister.getFlushed());
+        verify(weatherRepository).saveAll(anyList());
+    }
+
+    @Test
+    public void testBindTo_PublishesSavesAndQueueDepth() {
+        // Arrange
+        WeatherWriteBehindPersister persister = createPersister(100, 10, "flushed");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        persister.bindTo(registry);
+
+        // Act
+        persister.persist(weatherEntity("12345"));
+        persister.persist(weatherEntity("54321"));
+
+        // Assert
+        assertEquals(2, registry.get("weather.write.behind.enqueued").functionCounter().count());
+        assertEquals(2, registry.get("weather.write.behind.flushed").functionCounter().count());
+        assertEquals(persister.getBatches(), registry.get("weather.write.behind.batches").functionCounter().count());
+        assertEquals(0, registry.get("weather.write.behind.caller.runs").functionCounter().count());
+        assertEquals(0, registry.get("weather.write.behind.failures").functionCounter().count());
+        assertEquals(0, registry.get("weather.write.behind.queue.depth").gauge().value());
+    }
+
+    @Test
+    public void testPersist_FullQueueFallsBackToCallerSave() throws InterruptedException {
+        // Arrange
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WeatherWriteBehindPersister persister = createPersister(1, 1, "enqueued");
+        when(weatherRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            flushStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        WeatherEntity overflow = weatherEntity("33333");
+
+        // Act
+        persister.persist(weatherEntity("11111"));
+        assertTrue(flushStarted.await(5, TimeUnit.SECONDS));
+        persister.persist(weatherEntity("22222"));
+        persister.persist(overflow);
+        release.countDown();
+
+        // Assert
+        assertEquals(1, persister.getCallerRuns());
+        verify(weatherRepository).save(overflow);
+    }
+
+    @Test
+    public void testFlush_FailedBatchIsRetriedOneByOne() {
+        // Arrange
+        WeatherWriteBehindPersister persister = createPersister(100, 10, "flushed");
+        when(weatherRepository.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        WeatherEntity good = weatherEntity("12345");
+        WeatherEntity bad = weatherEntity("54321");
+        when(weatherRepository.save(bad)).thenThrow(new IllegalStateException("constraint violation"));
+
+        // Act & Assert
+        persister.persist(good);
+        WeatherException exception = assertThrows(WeatherException.class, () -> persister.persist(bad));
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+        assertEquals(1, persister.getFailures());
+        verify(weatherRepository).save(good);
+    }
+
+    @Test
+    public void testPersist_FlusherErrorFailsWaitingSaves() {
+        // Arrange
+        WeatherWriteBehindPersister persister = createPersister(100, 10, "flushed");
+        when(weatherRepository.saveAll(anyList())).thenThrow(new AssertionError("flusher died"));
+        WeatherEntity afterwards = weatherEntity("54321");
+
+        // Act & Assert
+        WeatherException exception = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> assertThrows(WeatherException.class, () -> persister.persist(weatherEntity("12345"))));
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+        assertEquals(1, persister.getFailures());
+        persister.persist(afterwards);
+        assertEquals(1, persister.getCallerRuns());
+        verify(weatherRepository).save(afterwards);
+    }
+
+    @Test
+    public void testShutdown_TimeoutFailsQueuedSaves() throws Exception {
+        // Arrange
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(weatherRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            flushStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        persister = new WeatherWriteBehindPersister(weatherRepository, transactionManager, true,
+                100, 1, 100, 20, "flushed", 100);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<?> flushing = callers.submit(() -> persister.persist(weatherEntity("11111")));
+            assertTrue(flushStarted.await(5, TimeUnit.SECONDS));
+            Future<?> queued = callers.submit(() -> persister.persist(weatherEntity("22222")));
+            while (persister.getQueueDepth() == 0) {
+                Thread.sleep(5);
+            }
+            persister.shutdown();
+
+            // Assert
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+            assertEquals(WeatherException.INTERNAL_SERVER_ERROR, ((WeatherException) failure.getCause()).getCode());
+            assertEquals(1, persister.getFailures());
+            release.countDown();
+            flushing.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testShutdown_DrainsQueuedSaves() {
+        // Arrange
+        WeatherWriteBehindPersister persister = createPersister(100, 1000, "enqueued");
+        List<WeatherEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entities.add(weatherEntity("2000" + i));
+        }
+
+        // Act
+        entities.forEach(persister::persist);
+        persister.shutdown();
+
+        // Assert
+        assertEquals(50, persister.getFlushed());
+        assertEquals(0, persister.getQueueDepth());
+    }
+
+    private static WeatherEntity weatherEntity(String postalCode) {
+        WeatherEntity weatherEntity = new WeatherEntity();
+        weatherEntity.setUser("testUser");
+        weatherEntity.setPostalCode(postalCode);
+        return weatherEntity;
+    }
+}
@@ -0,0 +1,51 @@
+package com.domain.weather.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Represents a test class for the `VirtualThreads`.
+ * Checks that virtual threads are detected on JDK 21 and later and refused cleanly before that.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    public void testIsSupported_MatchesRuntimeVersion() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    public void testFactory_UnsupportedJdkIsRefused() {
+        // Arrange
+        assumeFalse(VirtualThreads.isSupported());
+
+        // Act & Assert
+        assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.factory("weather-test-"));
+        assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.newThreadPerTaskExecutor("weather-test-"));
+    }
+
+    @Test
+    public void testNewThreadPerTaskExecutor_RunsOnNamedVirtualThreads() throws Exception {
+        // Arrange
+        assumeTrue(VirtualThreads.isSupported(), "needs JDK 21 or later");
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("weather-test-");
+
+        // Act
+        Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertTrue(thread.getName().startsWith("weather-test-"), thread.getName());
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+}
@@ -0,0 +1,68 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherBulkhead`.
+ * Contains test methods to verify that calls beyond the limit fail fast and that slots are released.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherBulkheadTest {
+
+    @Test
+    public void testExecute_FullBulkheadFailsFast() throws Exception {
+        // Arrange
+        WeatherBulkhead bulkhead = new WeatherBulkhead(1, 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bulkhead.bindTo(registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> slowCall = CompletableFuture.supplyAsync(() -> bulkhead.execute(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        WeatherException exception = assertThrows(WeatherException.class, () -> bulkhead.execute(() -> true));
+
+        // Assert
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, exception.getCode());
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(1.0, registry.get("weather.upstream.bulkhead.in.flight").gauge().value());
+        release.countDown();
+        assertTrue(slowCall.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void testExecute_FailedCallReleasesItsSlot() {
+        // Arrange
+        WeatherBulkhead bulkhead = new WeatherBulkhead(1, 0);
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> bulkhead.execute(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Assert
+        assertEquals("ok", bulkhead.execute(() -> "ok"));
+        assertEquals(0, bulkhead.getRejected());
+    }
+}
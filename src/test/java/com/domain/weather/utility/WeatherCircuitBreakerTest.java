@@ -0,0 +1,203 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherCircuitBreaker`.
+ * Contains test methods to verify opening on failures and slow calls, half-open probing,
+ * which errors are ignored, and the state metric.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherCircuitBreakerTest {
+
+    private static final long SLOW_CALL_MS = 1000;
+
+    private static final long OPEN_MS = 30_000;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final WeatherCircuitBreaker breaker = new WeatherCircuitBreaker(true, 10, 4, 50, 80, SLOW_CALL_MS, OPEN_MS, 2, now::get);
+
+    @Test
+    public void testExecute_OpensOnFailureRateAndFailsFast() {
+        // Arrange
+        succeed();
+        succeed();
+        fail();
+
+        // Act
+        fail();
+        WeatherException exception = assertThrows(WeatherException.class, () -> breaker.execute(this::upstreamCall));
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, exception.getCode());
+        assertEquals(4, upstreamCalls.get());
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    public void testExecute_StaysClosedBelowMinimumCalls() {
+        // Act
+        fail();
+        fail();
+        fail();
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testExecute_OpensOnSlowCalls() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                now.addAndGet(TimeUnit.MILLISECONDS.toNanos(SLOW_CALL_MS + 1));
+                return upstreamCall();
+            });
+        }
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(4, breaker.getSlowCalls());
+        assertEquals(0, breaker.getFailedCalls());
+    }
+
+    @Test
+    public void testExecute_IdleTimeIsNotCountedAsSlow() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                now.addAndGet(TimeUnit.MILLISECONDS.toNanos(SLOW_CALL_MS + 1));
+                return upstreamCall();
+            }, () -> TimeUnit.MILLISECONDS.toNanos(SLOW_CALL_MS));
+        }
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getSlowCalls());
+    }
+
+    @Test
+    public void testExecute_HealthyProbesCloseTheBreaker() {
+        // Arrange
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        assertEquals(WeatherCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // Act
+        succeed();
+        succeed();
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, breaker.getState());
+        fail();
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, breaker.getState(), "the window starts empty after closing");
+    }
+
+    @Test
+    public void testExecute_FailedProbeReopensTheBreaker() {
+        // Arrange
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+
+        // Act
+        fail();
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(WeatherException.class, () -> breaker.execute(this::upstreamCall));
+    }
+
+    @Test
+    public void testExecute_ProbeThrowingAnErrorIsRecordedAsFailure() {
+        // Arrange
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+
+        // Act
+        assertThrows(AssertionError.class, () -> breaker.execute(() -> {
+            throw new AssertionError("probe failed");
+        }));
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(5, breaker.getFailedCalls());
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        succeed();
+        succeed();
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testExecute_WeatherstackErrorsAndBulkheadRejectionsAreIgnored() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertThrows(WeatherException.class, () -> breaker.execute(() -> {
+                throw new WeatherException(WeatherException.INVALID_ACCESS_KEY, WeatherException.INVALID_ACCESS_KEY_MSG, LocalDateTime.now());
+            }));
+            assertThrows(WeatherException.class, () -> breaker.execute(() -> {
+                throw WeatherException.cached(WeatherException.NOT_FOUND_ERROR, WeatherException.POSTAL_CODE_NOT_FOUND_MSG);
+            }));
+            assertThrows(WeatherException.class, () -> breaker.execute(() -> {
+                throw new WeatherException(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG, LocalDateTime.now());
+            }));
+        }
+
+        // Assert
+        assertEquals(WeatherCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailedCalls());
+    }
+
+    @Test
+    public void testBindTo_ExposesBreakerState() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        breaker.bindTo(registry);
+
+        // Act
+        openBreaker();
+
+        // Assert
+        assertEquals(1.0, registry.get("weather.upstream.breaker.state").tag("state", "open").gauge().value());
+        assertEquals(0.0, registry.get("weather.upstream.breaker.state").tag("state", "closed").gauge().value());
+        assertEquals(4.0, registry.get("weather.upstream.breaker.calls").tag("outcome", "failure").functionCounter().count());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertEquals(WeatherCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void succeed() {
+        breaker.execute(this::upstreamCall);
+    }
+
+    private void fail() {
+        assertThrows(WeatherException.class, () -> breaker.execute(() -> {
+            upstreamCalls.incrementAndGet();
+            throw new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now());
+        }));
+    }
+
+    private String upstreamCall() {
+        upstreamCalls.incrementAndGet();
+        return "ok";
+    }
+}
@@ -0,0 +1,125 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherGazetteer` and the `WeatherGazetteerWriter`.
+ * Contains test methods to verify lookups in a written index, lazy loading, rejection of unknown ZIP codes
+ * and invalid CSV rows.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherGazetteerTest {
+
+    private static final String CSV = "postal_code,city,region,latitude,longitude,timezone\n"
+            + "98101,Seattle,Washington,47.6114,-122.3305,America/Los_Angeles\n"
+            + "00901,San Juan,Puerto Rico,18.4655,-66.1057,America/Puerto_Rico\n"
+            + "\n"
+            + "12345,Schenectady,New York,42.8142,-73.9396,America/New_York\n"
+            + "10001,New York,New York,40.7506,-73.9972,America/New_York\n";
+
+    @TempDir
+    Path directory;
+
+    private FileSystemResource writeIndex(String csv) throws IOException {
+        Path index = directory.resolve("weather-gazetteer.bin");
+        try (OutputStream out = Files.newOutputStream(index)) {
+            WeatherGazetteerWriter.write(new BufferedReader(new StringReader(csv)), out);
+        }
+        return new FileSystemResource(index);
+    }
+
+    @Test
+    public void testContains_FindsIndexedZipCodes() throws IOException {
+        // Arrange
+        WeatherGazetteer gazetteer = new WeatherGazetteer(writeIndex(CSV), false);
+
+        // Act & Assert
+        assertTrue(gazetteer.contains("12345-6789"));
+        assertTrue(gazetteer.contains("00901"));
+        assertTrue(gazetteer.contains("98101"));
+        assertTrue(gazetteer.contains("10001"));
+        assertFalse(gazetteer.contains("10002"));
+        assertFalse(gazetteer.contains("99999"));
+        assertFalse(gazetteer.contains("1234"));
+        assertFalse(gazetteer.contains("abcde"));
+    }
+
+    @Test
+    public void testCheck_RejectsUnknownZipCodesOnlyWhenEnabled() throws IOException {
+        // Arrange
+        FileSystemResource index = writeIndex(CSV);
+        WeatherGazetteer rejecting = new WeatherGazetteer(index, true);
+        WeatherGazetteer lenient = new WeatherGazetteer(index, false);
+
+        // Act
+        WeatherException exception = assertThrows(WeatherException.class, () -> rejecting.check("10002"));
+        rejecting.check("10001");
+        lenient.check("10002");
+
+        // Assert
+        assertEquals(WeatherException.NOT_FOUND_ERROR, exception.getCode());
+        assertEquals(1, rejecting.getRejections());
+        assertFalse(lenient.isLoaded());
+    }
+
+    @Test
+    public void testIndex_LoadedOnFirstUse() throws IOException {
+        // Arrange
+        WeatherGazetteer gazetteer = new WeatherGazetteer(writeIndex(CSV), true);
+        assertFalse(gazetteer.isLoaded());
+
+        // Act
+        boolean found = gazetteer.contains("98101");
+
+        // Assert
+        assertTrue(found);
+        assertTrue(gazetteer.isLoaded());
+        assertTrue(gazetteer.isAvailable());
+    }
+
+    @Test
+    public void testIndex_MissingOrCorruptIndexRejectsNothing() throws IOException {
+        // Arrange
+        Path corrupt = Files.write(directory.resolve("corrupt.bin"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        WeatherGazetteer missing = new WeatherGazetteer(new FileSystemResource(directory.resolve("missing.bin")), true);
+        WeatherGazetteer invalid = new WeatherGazetteer(new FileSystemResource(corrupt), true);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> missing.check("10001"));
+        assertDoesNotThrow(() -> invalid.check("10001"));
+        assertFalse(missing.isAvailable());
+        assertFalse(invalid.isAvailable());
+        assertFalse(missing.contains("10001"));
+    }
+
+    @Test
+    public void testWrite_RejectsInvalidRows() {
+        // Arrange
+        String header = "postal_code,city,region,latitude,longitude,timezone\n";
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> WeatherGazetteerWriter.write(new BufferedReader(new StringReader(
+                header + "1234,Nowhere,Nowhere,0,0,UTC\n")), new ByteArrayOutputStream()));
+        assertThrows(IOException.class, () -> WeatherGazetteerWriter.write(new BufferedReader(new StringReader(
+                header + "10001,New York,New York,40.7,-74.0,America/Gotham\n")), new ByteArrayOutputStream()));
+        assertThrows(IOException.class, () -> WeatherGazetteerWriter.write(new BufferedReader(new StringReader(
+                header + "10001,New York,New York,40.7,-74.0,America/New_York\n10001,New York,New York,40.7,-74.0,America/New_York\n")),
+                new ByteArrayOutputStream()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherMetrics`.
+ * Contains test methods to verify the service timers and the counters per WeatherException code.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherMetricsTest {
+
+    @Test
+    void testConstructor_RegistersMetersUpFront() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // Act
+        new WeatherMetrics(registry);
+
+        // Assert
+        assertEquals(WeatherMetrics.Operation.values().length * 2, registry.find("weather.service.calls").timers().size());
+        assertNotNull(registry.find("weather.exceptions").tag("code", WeatherException.SERVICE_UNAVAILABLE_ERROR).counter());
+    }
+
+    @Test
+    void testRecordService_ByOperationAndOutcome() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherMetrics weatherMetrics = new WeatherMetrics(registry);
+
+        // Act
+        weatherMetrics.recordService(WeatherMetrics.Operation.SAVE_WEATHER, System.nanoTime(), true);
+        weatherMetrics.recordService(WeatherMetrics.Operation.SAVE_WEATHER, System.nanoTime(), false);
+        weatherMetrics.recordService(WeatherMetrics.Operation.GET_WEATHER, System.nanoTime(), true);
+
+        // Assert
+        Timer saved = registry.get("weather.service.calls").tag("method", "saveWeather").tag("outcome", "success").timer();
+        Timer failed = registry.get("weather.service.calls").tag("method", "saveWeather").tag("outcome", "error").timer();
+        assertEquals(1, saved.count());
+        assertEquals(1, failed.count());
+        assertEquals(1, registry.get("weather.service.calls").tag("method", "getWeather").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testCountException_KnownAndUnknownCodes() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherMetrics weatherMetrics = new WeatherMetrics(registry);
+
+        // Act
+        weatherMetrics.countException(WeatherException.INVALID_REQUEST_ERROR);
+        weatherMetrics.countException(WeatherException.INVALID_REQUEST_ERROR);
+        weatherMetrics.countException("API_ERROR");
+        weatherMetrics.countException(null);
+
+        // Assert
+        assertEquals(2, weatherMetrics.getExceptionCount(WeatherException.INVALID_REQUEST_ERROR));
+        assertEquals(1, registry.get("weather.exceptions").tag("code", "API_ERROR").counter().count());
+        assertEquals(1, registry.get("weather.exceptions").tag("code", "none").counter().count());
+    }
+}
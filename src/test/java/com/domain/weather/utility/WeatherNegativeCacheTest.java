@@ -0,0 +1,98 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherNegativeCache`.
+ * Contains test methods to verify local rejections, expiry, the entry bound and the counters.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherNegativeCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    public void testCheck_CachedPostalCodeFailsUntilItExpires() {
+        // Arrange
+        WeatherNegativeCache cache = new WeatherNegativeCache(60, 10, now::get);
+        cache.add("00000");
+
+        // Act
+        WeatherException exception = assertThrows(WeatherException.class, () -> cache.check("00000"));
+        cache.check("12345");
+        advanceSeconds(60);
+        cache.check("00000");
+
+        // Assert
+        assertEquals(WeatherException.NOT_FOUND_ERROR, exception.getCode());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testAdd_DropsExpiredThenOldestEntries() {
+        // Arrange
+        WeatherNegativeCache cache = new WeatherNegativeCache(60, 2, now::get);
+        cache.add("00001");
+        advanceSeconds(60);
+
+        // Act
+        cache.add("00002");
+        cache.add("00003");
+        cache.add("00004");
+
+        // Assert
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.getExpirations());
+        assertDoesNotThrow(() -> cache.check("00002"));
+        assertThrows(WeatherException.class, () -> cache.check("00003"));
+        assertThrows(WeatherException.class, () -> cache.check("00004"));
+    }
+
+    @Test
+    public void testCheck_ZeroTtlDisablesCache() {
+        // Arrange
+        WeatherNegativeCache cache = new WeatherNegativeCache(0, 10, now::get);
+
+        // Act
+        cache.add("00000");
+
+        // Assert
+        assertDoesNotThrow(() -> cache.check("00000"));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testBindTo_ExposesCounters() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherNegativeCache cache = new WeatherNegativeCache(60, 10, now::get);
+        cache.bindTo(registry);
+        cache.add("00000");
+
+        // Act
+        assertThrows(WeatherException.class, () -> cache.check("00000"));
+        assertThrows(WeatherException.class, () -> cache.check("00000"));
+
+        // Assert
+        assertEquals(2, registry.get("weather.negative.cache.hits").functionCounter().count());
+        assertEquals(1, registry.get("weather.negative.cache.additions").functionCounter().count());
+        assertEquals(1, registry.get("weather.negative.cache.size").gauge().value());
+    }
+}
@@ -0,0 +1,76 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.model.WeatherRequestDTO;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Represents a test class for the `WeatherPayloadSampler`.
+ * Contains test methods to verify sampling and the payload size cap.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherPayloadSamplerTest {
+
+    @Test
+    void testDebug_LogsSampledPayloadAsJson() {
+        // Arrange
+        WeatherPayloadSampler sampler = new WeatherPayloadSampler(1.0, 1024);
+        Logger logger = mock(Logger.class);
+        when(logger.isDebugEnabled()).thenReturn(true);
+        WeatherRequestDTO payload = new WeatherRequestDTO();
+        payload.setUser("alice");
+        payload.setPostalCode("12345");
+
+        // Act
+        sampler.debug(logger, "Payload for {}: {}", "alice", payload);
+
+        // Assert
+        verify(logger).debug(eq("Payload for {}: {}"), eq((Object) "alice"), eq((Object) "{\"user\":\"alice\",\"postalCode\":\"12345\"}"));
+    }
+
+    @Test
+    void testDebug_SkipsWhenNotSampledOrDebugOff() {
+        // Arrange
+        WeatherPayloadSampler sampleNone = new WeatherPayloadSampler(0, 1024);
+        WeatherPayloadSampler sampleAll = new WeatherPayloadSampler(1.0, 1024);
+        Logger debugOn = mock(Logger.class);
+        when(debugOn.isDebugEnabled()).thenReturn(true);
+        Logger debugOff = mock(Logger.class);
+
+        // Act
+        sampleNone.debug(debugOn, "Payload for {}: {}", "alice", "payload");
+        sampleAll.debug(debugOff, "Payload for {}: {}", "alice", "payload");
+
+        // Assert
+        verify(debugOn, never()).debug(any(String.class), any(Object.class), any(Object.class));
+        verify(debugOff, never()).debug(any(String.class), any(Object.class), any(Object.class));
+    }
+
+    @Test
+    void testToJson_TruncatesLargePayloads() {
+        // Arrange
+        WeatherPayloadSampler sampler = new WeatherPayloadSampler(1.0, 100);
+        String large = String.join("", Collections.nCopies(20_000, "x"));
+
+        // Act
+        String json = sampler.toJson(Collections.singletonMap("value", large));
+
+        // Assert
+        assertTrue(json.startsWith("{\"value\":\"xxx"));
+        assertTrue(json.endsWith("... (truncated at 100 chars)"));
+        assertEquals(100 + "... (truncated at 100 chars)".length(), json.length());
+    }
+}
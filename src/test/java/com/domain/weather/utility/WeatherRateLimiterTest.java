@@ -0,0 +1,230 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherRateLimiter`.
+ * Contains test methods to verify token refill, the admission deadline, fair sharing between users,
+ * extra attempts, the monthly quota and the quota gauges.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherRateLimiterTest {
+
+    private static final Instant NOVEMBER_FIRST = Instant.parse("2024-11-01T00:00:00Z");
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final MutableClock clock = new MutableClock(NOVEMBER_FIRST);
+
+    @Test
+    public void testExecute_RefillsAtTheConfiguredRate() {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 60, 2, 0, 0, true, now::get, clock);
+        limiter.execute("alice", () -> "ok");
+        limiter.execute("alice", () -> "ok");
+        assertThrows(WeatherException.class, () -> limiter.execute("alice", () -> "ok"));
+
+        // Act
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // Assert
+        assertEquals("ok", limiter.execute("alice", () -> "ok"));
+        assertEquals(3, limiter.getAdmittedCalls());
+        assertEquals(1, limiter.getRejectedCalls());
+    }
+
+    @Test
+    public void testExecute_QueuedCallMissingItsDeadlineIsRejected() {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 1, 1, 50, 0, true, System::nanoTime, clock);
+        limiter.execute("alice", () -> "ok");
+
+        // Act
+        long start = System.nanoTime();
+        WeatherException exception = assertThrows(WeatherException.class, () -> limiter.execute("alice", () -> "ok"));
+
+        // Assert
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, exception.getCode());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50), "the call should wait for its deadline");
+        assertEquals(0, limiter.getWaiting());
+        assertEquals(1, limiter.getQueuedCalls());
+    }
+
+    @Test
+    public void testExecute_QueuedUsersTakeTurns() throws Exception {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 120, 1, 5000, 0, true, System::nanoTime, clock);
+        limiter.execute("alice", () -> "ok");
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+
+        // Act
+        for (String call : Arrays.asList("alice-1", "alice-2", "alice-3", "alice-4", "bob-1")) {
+            String user = call.substring(0, call.indexOf('-'));
+            int waiting = limiter.getWaiting();
+            calls.add(CompletableFuture.supplyAsync(() -> limiter.execute(user, () -> {
+                admitted.add(call);
+                return call;
+            }), executor));
+            awaitWaiting(limiter, waiting + 1);
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(Arrays.asList("alice-1", "bob-1", "alice-2", "alice-3", "alice-4"), admitted);
+    }
+
+    @Test
+    public void testExecute_UsedUpQuotaRejectsUntilNextMonth() {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 60, 10, 0, 2, false, now::get, clock);
+        limiter.execute("alice", () -> "ok");
+        limiter.execute("bob", () -> "ok");
+
+        // Act
+        WeatherException exception = assertThrows(WeatherException.class, () -> limiter.execute("carol", () -> "ok"));
+
+        // Assert
+        assertEquals(WeatherException.SERVICE_UNAVAILABLE_ERROR, exception.getCode());
+        assertEquals(0, limiter.getQuotaRemaining());
+        clock.set(Instant.parse("2024-12-01T00:00:00Z"));
+        assertEquals("ok", limiter.execute("carol", () -> "ok"));
+        assertEquals(1, limiter.getQuotaUsed());
+    }
+
+    @Test
+    public void testExecute_CallTurnedAwayLocallyIsNotCharged() {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 60, 10, 0, 100, false, now::get, clock);
+
+        // Act
+        assertThrows(WeatherException.class, () -> limiter.execute("alice", () -> {
+            throw new WeatherException(WeatherException.SERVICE_UNAVAILABLE_ERROR, WeatherException.SERVICE_UNAVAILABLE_MSG, LocalDateTime.now());
+        }));
+        assertThrows(WeatherException.class, () -> limiter.execute("alice", () -> {
+            throw new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now());
+        }));
+
+        // Assert
+        assertEquals(1, limiter.getQuotaUsed());
+        assertEquals(99, limiter.getQuotaRemaining());
+    }
+
+    @Test
+    public void testTryAcquire_ChargesExtraAttemptsWhileTokensAndQuotaLast() {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 60, 3, 0, 2, false, now::get, clock);
+        limiter.execute("alice", () -> "ok");
+
+        // Act
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second, "the quota is used up even though a token is left");
+        assertEquals(2, limiter.getQuotaUsed());
+        assertEquals(1.0, limiter.getTokens());
+        assertEquals(0, limiter.getRejectedCalls());
+    }
+
+    @Test
+    public void testTryAcquire_NeverGoesAheadOfQueuedCalls() throws Exception {
+        // Arrange
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 120, 1, 5000, 0, true, now::get, clock);
+        limiter.execute("alice", () -> "ok");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> limiter.execute("bob", () -> "ok"), executor);
+        awaitWaiting(limiter, 1);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // Act
+        boolean acquired = limiter.tryAcquire();
+
+        // Assert
+        assertFalse(acquired);
+        assertEquals("ok", queued.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testBindTo_PacesTheQuotaOverTheMonth() {
+        // Arrange
+        // November has 43,200 minutes, so a quota of 43,200 calls allows one call a minute
+        WeatherRateLimiter limiter = new WeatherRateLimiter(true, 60, 1, 0, 43_200, true, now::get, clock);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+        assertEquals(1.0, registry.get("weather.upstream.quota.even.rate").gauge().value(), 1e-9);
+
+        // Act
+        limiter.execute("alice", () -> "ok");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Assert
+        assertEquals(0.5, limiter.getTokens(), 0.01, "tokens refill at the paced rate, not the per-minute limit");
+        assertThrows(WeatherException.class, () -> limiter.execute("alice", () -> "ok"));
+        assertEquals(1.0, registry.get("weather.upstream.quota.used").gauge().value());
+        assertEquals(43_199.0, registry.get("weather.upstream.quota.remaining").gauge().value());
+        assertEquals(1.0, registry.get("weather.upstream.ratelimit.calls").tag("outcome", "rejected").functionCounter().count());
+    }
+
+    private static void awaitWaiting(WeatherRateLimiter limiter, int waiting) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getWaiting() < waiting) {
+            assertTrue(System.nanoTime() < deadline, "call was never queued");
+            Thread.sleep(1);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
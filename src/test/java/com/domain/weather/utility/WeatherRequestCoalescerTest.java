@@ -0,0 +1,182 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.model.WeatherResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherRequestCoalescer`.
+ * Contains test methods to verify that concurrent fetches for a postal code are shared, and the metrics.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherRequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    @Test
+    public void testExecute_ConcurrentCallersShareOneFetch() throws Exception {
+        // Arrange
+        WeatherRequestCoalescer coalescer = new WeatherRequestCoalescer();
+        WeatherResponseDTO response = new WeatherResponseDTO();
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        try {
+            // Act
+            List<Future<WeatherResponseDTO>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> coalescer.execute("12345", () -> {
+                    fetches.incrementAndGet();
+                    await(release);
+                    return response;
+                })));
+            }
+            waitForCallers(coalescer);
+            release.countDown();
+
+            // Assert
+            for (Future<WeatherResponseDTO> result : results) {
+                assertSame(response, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, fetches.get());
+            assertEquals(1, coalescer.getUpstreamCalls());
+            assertEquals(CALLERS - 1, coalescer.getCoalescedCalls());
+            assertEquals(0, coalescer.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_FailureIsSharedAndNotCached() {
+        // Arrange
+        WeatherRequestCoalescer coalescer = new WeatherRequestCoalescer();
+        WeatherException failure = new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now());
+
+        // Act & Assert
+        assertSame(failure, assertThrows(WeatherException.class, () -> coalescer.execute("12345", () -> {
+            throw failure;
+        })));
+        WeatherResponseDTO response = new WeatherResponseDTO();
+        assertSame(response, coalescer.execute("12345", () -> response));
+        assertEquals(2, coalescer.getUpstreamCalls());
+    }
+
+    @Test
+    public void testExecute_ErrorInFetchReleasesJoinedCallers() throws Exception {
+        // Arrange
+        WeatherRequestCoalescer coalescer = new WeatherRequestCoalescer();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<WeatherResponseDTO> first = executor.submit(() -> coalescer.execute("12345", () -> {
+                await(release);
+                throw new AssertionError("boom");
+            }));
+            while (coalescer.getInFlight() == 0) {
+                Thread.sleep(5);
+            }
+            Future<WeatherResponseDTO> joined = executor.submit(() -> coalescer.execute("12345", WeatherResponseDTO::new));
+            waitForCallers(coalescer, 1);
+            release.countDown();
+
+            // Assert
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, failure.getCause());
+            ExecutionException joinedFailure = assertThrows(ExecutionException.class, () -> joined.get(5, TimeUnit.SECONDS));
+            assertEquals(WeatherException.INTERNAL_SERVER_ERROR, ((WeatherException) joinedFailure.getCause()).getCode());
+            assertEquals(0, coalescer.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_DifferentPostalCodesAreNotShared() {
+        // Arrange
+        WeatherRequestCoalescer coalescer = new WeatherRequestCoalescer();
+
+        // Act
+        coalescer.execute("12345", WeatherResponseDTO::new);
+        coalescer.execute("54321", WeatherResponseDTO::new);
+
+        // Assert
+        assertEquals(2, coalescer.getUpstreamCalls());
+        assertEquals(0, coalescer.getCoalescedCalls());
+    }
+
+    @Test
+    public void testBindTo_PublishesUpstreamAndCoalescedCalls() throws Exception {
+        // Arrange
+        WeatherRequestCoalescer coalescer = new WeatherRequestCoalescer();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        coalescer.bindTo(registry);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<WeatherResponseDTO> first = executor.submit(() -> coalescer.execute("12345", () -> {
+                await(release);
+                return new WeatherResponseDTO();
+            }));
+            while (coalescer.getInFlight() == 0) {
+                Thread.sleep(5);
+            }
+            double inFlight = registry.get("weather.coalescer.in.flight").gauge().value();
+            Future<WeatherResponseDTO> joined = executor.submit(() -> coalescer.execute("12345", WeatherResponseDTO::new));
+            waitForCallers(coalescer, 1);
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            joined.get(5, TimeUnit.SECONDS);
+            coalescer.execute("54321", WeatherResponseDTO::new);
+
+            // Assert
+            assertEquals(1, inFlight);
+            assertEquals(2, registry.get("weather.coalescer.upstream.calls").functionCounter().count());
+            assertEquals(1, registry.get("weather.coalescer.coalesced.calls").functionCounter().count());
+            assertEquals(0, registry.get("weather.coalescer.in.flight").gauge().value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitForCallers(WeatherRequestCoalescer coalescer) throws InterruptedException {
+        waitForCallers(coalescer, CALLERS - 1);
+    }
+
+    private static void waitForCallers(WeatherRequestCoalescer coalescer, int coalesced) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getCoalescedCalls() < coalesced && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
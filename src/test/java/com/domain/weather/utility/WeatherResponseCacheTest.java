@@ -0,0 +1,262 @@
+package com.domain.weather.utility;
+
+import com.domain.weather.exception.WeatherException;
+import com.domain.weather.model.CurrentDTO;
+import com.domain.weather.model.LocationDTO;
+import com.domain.weather.model.WeatherResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherResponseCache`.
+ * Contains test methods to verify expiry, eviction, the cache counters and their meters.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherResponseCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Map<String, AtomicInteger> loadsByPostalCode = new ConcurrentHashMap<>();
+
+    private WeatherResponseDTO load(String postalCode) {
+        loads.incrementAndGet();
+        loadsByPostalCode.computeIfAbsent(postalCode, key -> new AtomicInteger()).incrementAndGet();
+        WeatherResponseDTO response = new WeatherResponseDTO();
+        response.setLocation(new LocationDTO.Builder().name("City " + postalCode).country("USA").build());
+        response.setCurrent(new CurrentDTO.Builder().weather_descriptions(Arrays.asList("Clear sky")).build());
+        return response;
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    public void testGet_FreshEntryIsServedFromCache() {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, 1_000_000, now::get);
+
+        // Act
+        WeatherResponseDTO first = cache.get("12345", this::load);
+        advanceSeconds(59);
+        WeatherResponseDTO second = cache.get("12345", this::load);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testGet_ExpiredEntryIsNeverServed() {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, 1_000_000, now::get);
+
+        // Act
+        WeatherResponseDTO first = cache.get("12345", this::load);
+        advanceSeconds(61);
+        WeatherResponseDTO second = cache.get("12345", this::load);
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getExpirations());
+    }
+
+    @Test
+    public void testGet_LeastRecentlyUsedEntryIsEvictedAtMaxEntries() {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 2, 1_000_000, now::get);
+
+        // Act
+        cache.get("11111", this::load);
+        cache.get("22222", this::load);
+        cache.get("11111", this::load);
+        cache.get("33333", this::load);
+        cache.get("11111", this::load);
+        cache.get("22222", this::load);
+
+        // Assert
+        assertEquals(2, cache.getSize());
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void testGet_EntriesAreEvictedAtMemoryCeiling() {
+        // Arrange
+        long entryBytes;
+        WeatherResponseCache probe = new WeatherResponseCache(60, 10, 1_000_000, now::get);
+        probe.get("11111", this::load);
+        entryBytes = probe.getEstimatedBytes();
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, entryBytes * 3 + entryBytes / 2, now::get);
+
+        // Act
+        for (int i = 0; i < 6; i++) {
+            cache.get("1000" + i, this::load);
+        }
+
+        // Assert
+        assertEquals(3, cache.getSize());
+        assertTrue(cache.getEstimatedBytes() <= entryBytes * 3 + entryBytes / 2);
+        assertEquals(3, cache.getEvictions());
+    }
+
+    @Test
+    public void testGet_FailedLoadIsNotCached() {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, 1_000_000, now::get);
+
+        // Act & Assert
+        assertThrows(WeatherException.class, () -> cache.get("12345", postalCode -> {
+            throw new WeatherException(WeatherException.INTERNAL_SERVER_ERROR, WeatherException.INTERNAL_SERVER_ERROR_MSG, LocalDateTime.now());
+        }));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testGet_ZeroTtlDisablesCaching() {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(0, 10, 1_000_000, now::get);
+
+        // Act
+        cache.get("12345", this::load);
+        cache.get("12345", this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testGet_StaleEntryIsServedWhileRefreshing() throws InterruptedException {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, 1_000_000, 30, 0, 0, 1, 0, now::get);
+        WeatherResponseDTO first = cache.get("12345", this::load);
+
+        // Act
+        advanceSeconds(70);
+        WeatherResponseDTO stale = cache.get("12345", this::load);
+        waitFor(() -> cache.getRefreshes() == 1);
+        WeatherResponseDTO refreshed = cache.get("12345", this::load);
+
+        // Assert
+        assertSame(first, stale);
+        assertNotSame(first, refreshed);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStaleHits());
+        assertEquals(1, cache.getHits());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testGet_StaleEntryIsRefreshedWithTheRefreshLoader() throws InterruptedException {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, 1_000_000, 30, 0, 0, 1, 0, now::get);
+        AtomicInteger userLoads = new AtomicInteger();
+        Function<String, WeatherResponseDTO> userLoader = postalCode -> {
+            userLoads.incrementAndGet();
+            return load(postalCode);
+        };
+        cache.get("12345", userLoader, this::load);
+
+        // Act
+        advanceSeconds(70);
+        cache.get("12345", userLoader, this::load);
+        waitFor(() -> cache.getRefreshes() == 1);
+
+        // Assert
+        assertEquals(1, userLoads.get());
+        assertEquals(2, loads.get());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testGet_EntryPastMaxStalenessIsReloaded() {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, 1_000_000, 30, 0, 0, 1, 0, now::get);
+        WeatherResponseDTO first = cache.get("12345", this::load);
+
+        // Act
+        advanceSeconds(91);
+        WeatherResponseDTO second = cache.get("12345", this::load);
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(0, cache.getStaleHits());
+        assertEquals(1, cache.getExpirations());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testRefreshAhead_RefreshesMostRequestedEntriesInWindow() throws InterruptedException {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 10, 1_000_000, 0, 10, 1, 1, 0, now::get);
+        cache.get("11111", this::load);
+        cache.get("22222", this::load);
+        cache.get("11111", this::load);
+        cache.get("11111", this::load);
+
+        // Act
+        advanceSeconds(40);
+        cache.refreshAhead();
+        advanceSeconds(15);
+        cache.refreshAhead();
+        waitFor(() -> cache.getRefreshes() == 1);
+
+        // Assert
+        assertEquals(2, loadsByPostalCode.get("11111").get());
+        assertEquals(1, loadsByPostalCode.get("22222").get());
+        advanceSeconds(10);
+        cache.get("11111", this::load);
+        assertEquals(2, loadsByPostalCode.get("11111").get());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testBindTo_PublishesHitsMissesEvictionsAndSize() {
+        // Arrange
+        WeatherResponseCache cache = new WeatherResponseCache(60, 1, 1_000_000, now::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Act
+        cache.get("11111", this::load);
+        cache.get("11111", this::load);
+        cache.get("22222", this::load);
+
+        // Assert
+        assertEquals(1, registry.get("weather.cache.hits").functionCounter().count());
+        assertEquals(2, registry.get("weather.cache.misses").functionCounter().count());
+        assertEquals(1, registry.get("weather.cache.evictions").functionCounter().count());
+        assertEquals(1, registry.get("weather.cache.size").gauge().value());
+        assertEquals(cache.getEstimatedBytes(), registry.get("weather.cache.bytes").gauge().value());
+        assertTrue(cache.getEstimatedBytes() > 0);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
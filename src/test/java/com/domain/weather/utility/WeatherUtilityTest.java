@@ -7,6 +7,10 @@ import com.domain.weather.model.*;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -57,6 +61,14 @@ public class WeatherUtilityTest {
         assertFalse(result);
     }
 
+    @Test
+    public void testNormalizePostalCode_ZipPlusFour() {
+        assertEquals("12345", WeatherUtility.normalizePostalCode("12345-6789"));
+        assertEquals("12345", WeatherUtility.normalizePostalCode(" 12345 "));
+        assertEquals("123", WeatherUtility.normalizePostalCode("123"));
+        assertNull(WeatherUtility.normalizePostalCode(null));
+    }
+
     @Test
     public void testIsValidRequest_ValidUserAndPostalCode() {
         // Test case: Valid user and postal code
@@ -129,6 +141,22 @@ public class WeatherUtilityTest {
         assertTrue(result);
     }
 
+    @Test
+    public void testHistoryCursor_RoundTrip() {
+        String cursor = WeatherUtility.encodeHistoryCursor(42L);
+        assertEquals(42L, WeatherUtility.decodeHistoryCursor(cursor));
+        assertEquals(Long.MAX_VALUE, WeatherUtility.decodeHistoryCursor(null));
+        assertEquals(Long.MAX_VALUE, WeatherUtility.decodeHistoryCursor(""));
+    }
+
+    @Test
+    public void testHistoryCursor_MalformedCursor() {
+        for (String cursor : Arrays.asList("not a cursor", "YWJj", WeatherUtility.encodeHistoryCursor(0L))) {
+            WeatherException exception = assertThrows(WeatherException.class, () -> WeatherUtility.decodeHistoryCursor(cursor));
+            assertEquals(WeatherException.INVALID_REQUEST_ERROR, exception.getCode());
+        }
+    }
+
     @Test
     public void testCreateInvalidRequestException_ValidUser() {
         // Test case: Valid user
@@ -304,23 +332,103 @@ public class WeatherUtilityTest {
         // Arrange
         WeatherRequestDTO requestDTO = new WeatherRequestDTO();
         requestDTO.setPostalCode("12345");
+        WeatherResponseDTO mockResponse = new WeatherResponseDTO();
 
-        // Mock the response from the API
-        String mockResponse = "{\"current\":{\"temperature\":22,\"weather_code\":1000,\"weather_icons\":[\"clear-sky.png\"],\"weather_descriptions\":[\"Clear sky\"],\"wind_speed\":10,\"wind_degree\":180,\"wind_dir\":\"South\",\"pressure\":1015,\"precip\":0,\"humidity\":65,\"cloudcover\":10,\"feelslike\":21,\"uv_index\":5,\"visibility\":10,\"is_day\":\"yes\"},\"location\":{\"country\":\"USA\",\"name\":\"New York\",\"lat\":\"40.7128\",\"lon\":\"-74.0060\",\"region\":\"New York\",\"localtime\":\"2024-12-26 12:00:00\",\"timezone_id\":\"America/New_York\",\"utc_offset\":\"-05:00\",\"localtime_epoch\":1703592000}}";
+        // Mock the client call
+        WeatherWebClient weatherWebClient = Mockito.mock(WeatherWebClient.class);
+        when(weatherWebClient.callWeatherAPI(requestDTO.getPostalCode())).thenReturn(mockResponse);
 
-        // Mock the static method call
-        Mockito.mockStatic(WeatherWebClient.class);
-        when(WeatherWebClient.CallWeatherAPI(requestDTO.getPostalCode())).thenReturn(mockResponse);
+        // Act
+        WeatherResponseDTO result = WeatherUtility.fetchWeatherFromAPI(weatherWebClient, requestDTO);
+
+        // Assert
+        assertSame(mockResponse, result);
+    }
+
+    @Test
+    public void testParseWeatherResponse_Success() throws Exception {
+        // Arrange
+        String mockResponse = "{\"current\":{\"temperature\":22,\"weather_code\":1000,\"weather_icons\":[\"clear-sky.png\"],\"weather_descriptions\":[\"Clear sky\"],\"wind_speed\":10,\"wind_degree\":180,\"wind_dir\":\"South\",\"pressure\":1015,\"precip\":0,\"humidity\":65,\"cloudcover\":10,\"feelslike\":21,\"uv_index\":5,\"visibility\":10,\"is_day\":\"yes\"},\"location\":{\"country\":\"USA\",\"name\":\"New York\",\"lat\":\"40.7128\",\"lon\":\"-74.0060\",\"region\":\"New York\",\"localtime\":\"2024-12-26 12:00:00\",\"timezone_id\":\"America/New_York\",\"utc_offset\":\"-05:00\",\"localtime_epoch\":1703592000}}";
 
         // Act
-        WeatherResponseDTO result = WeatherUtility.fetchWeatherFromAPI(requestDTO);
+        WeatherResponseDTO result = WeatherUtility.parseWeatherResponse(toStream(mockResponse));
 
         // Assert
         assertNotNull(result);
         assertEquals(22, result.getCurrent().getTemperature());
         assertEquals("USA", result.getLocation().getCountry());
         assertEquals("New York", result.getLocation().getName());
-        // Add more assertions for other fields as needed
+        assertEquals(1703592000L, result.getLocation().getLocaltime_epoch());
+    }
+
+    @Test
+    public void testParseWeatherResponse_IgnoresUnknownProperties() throws Exception {
+        // Arrange
+        String mockResponse = "{\"request\":{\"type\":\"Zipcode\",\"query\":\"12345\",\"language\":\"en\",\"unit\":\"m\"},\"location\":{\"name\":\"Schenectady\",\"country\":\"USA\",\"localtime_epoch\":1703592000},\"current\":{\"temperature\":3,\"weather_icons\":[\"sunny.png\"],\"weather_descriptions\":[\"Sunny\"],\"astro\":{\"sunrise\":\"07:18 AM\"},\"air_quality\":{\"co\":\"287.45\"}},\"extra\":[1,{\"a\":2}]}";
+
+        // Act
+        WeatherResponseDTO result = WeatherUtility.parseWeatherResponse(toStream(mockResponse));
+
+        // Assert
+        assertEquals(3, result.getCurrent().getTemperature());
+        assertEquals("Schenectady", result.getLocation().getName());
+        assertEquals("Zipcode", result.getRequest().getType());
+    }
+
+    @Test
+    public void testParseWeatherResponse_ErrorObject() {
+        // Arrange
+        String mockResponse = "{\"success\":false,\"error\":{\"code\":101,\"type\":\"invalid_access_key\",\"info\":\"You have not supplied a valid API Access Key.\"}}";
+
+        // Act & Assert
+        WeatherException exception = assertThrows(WeatherException.class, () -> WeatherUtility.parseWeatherResponse(toStream(mockResponse)));
+        assertEquals(WeatherException.INVALID_ACCESS_KEY, exception.getCode());
+    }
+
+    @Test
+    public void testParseWeatherResponse_FailedQueryWithNoResultsIsNotFound() {
+        // Arrange
+        String noResults = "{\"success\":false,\"error\":{\"code\":615,\"type\":\"request_failed\",\"info\":\"Your API request failed: No results found for this query.\"}}";
+        String missingQuery = "{\"success\":false,\"error\":{\"code\":601,\"type\":\"missing_query\",\"info\":\"Please specify a valid location identifier using the query parameter.\"}}";
+
+        // Act & Assert
+        WeatherException exception = assertThrows(WeatherException.class, () -> WeatherUtility.parseWeatherResponse(toStream(noResults)));
+        assertEquals(WeatherException.NOT_FOUND_ERROR, exception.getCode());
+        assertEquals(WeatherException.POSTAL_CODE_NOT_FOUND_MSG, exception.getMessage());
+        exception = assertThrows(WeatherException.class, () -> WeatherUtility.parseWeatherResponse(toStream(missingQuery)));
+        assertEquals(WeatherException.NOT_FOUND_ERROR, exception.getCode());
+    }
+
+    @Test
+    public void testParseWeatherResponse_OtherFailedRequestIsAnUpstreamError() {
+        // Arrange
+        String mockResponse = "{\"success\":false,\"error\":{\"code\":615,\"type\":\"request_failed\",\"info\":\"Your API request failed. Please try again or contact support.\"}}";
+
+        // Act & Assert
+        WeatherException exception = assertThrows(WeatherException.class, () -> WeatherUtility.parseWeatherResponse(toStream(mockResponse)));
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+    }
+
+    @Test
+    public void testParseWeatherResponse_ErrorTextInValueIsNotAnError() throws Exception {
+        // Arrange
+        String mockResponse = "{\"location\":{\"name\":\"Terror Bay\"},\"current\":{\"weather_descriptions\":[\"error-free skies\"]}}";
+
+        // Act
+        WeatherResponseDTO result = WeatherUtility.parseWeatherResponse(toStream(mockResponse));
+
+        // Assert
+        assertEquals("Terror Bay", result.getLocation().getName());
+    }
+
+    @Test
+    public void testParseWeatherResponse_InvalidJson() {
+        assertThrows(IOException.class, () -> WeatherUtility.parseWeatherResponse(toStream("[1,2]")));
+        assertThrows(IOException.class, () -> WeatherUtility.parseWeatherResponse(toStream("{\"current\":")));
+    }
+
+    private static InputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
     }
 
     @Test
@@ -436,4 +544,4 @@ public class WeatherUtilityTest {
         assertEquals(10, weatherHistory.getWeather().getVisibility());
         assertEquals(21, weatherHistory.getWeather().getFeelslike());
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.domain.weather.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Represents a test class for the `WeatherValidators`.
+ * Checks that the character-scan validators accept and reject exactly what the
+ * reference patterns do, over hand-picked edge cases and a seeded random corpus.
+ *
+ * @author Puja Chaudhury
+ * @version 1.0
+ * @since December 2024
+ */
+public class WeatherValidatorsTest {
+
+    private static final long SEED = 20241201L;
+
+    private static final int CORPUS_SIZE = 200_000;
+
+    // Alphabets are weighted towards characters the grammars care about, plus look-alikes
+    // (Unicode digits and letters, tabs, newlines) that must be rejected.
+    private static final String POSTAL_CODE_ALPHABET = "0123456789-- \t\n+a٣１";
+
+    private static final String NAME_ALPHABET = "abcXYZ '- '-\t\n.1_éİ";
+
+    private static final List<String> POSTAL_CODE_EDGE_CASES = Arrays.asList(
+            "", " ", "12345", "12345-6789", "1234", "123456", "12345-", "12345-678", "12345-67890",
+            "12345 6789", "123456789", " 12345", "12345 ", "12345\n", "١٢٣٤٥",
+            "-1234", "12a45", "12345-678a", "00000", "99999-0000");
+
+    private static final List<String> NAME_EDGE_CASES = Arrays.asList(
+            "", " ", "a", "john", "john doe", "mary-jane", "o'brien", "john  doe", "john-", "-john",
+            "'john", "john'", "jo--hn", "jo -hn", "John Doe-Smith", "jörg", "john\n", "john\tdoe",
+            "123", "john2", "J");
+
+    @Test
+    public void testIsUsPostalCode_EdgeCasesMatchReferencePattern() {
+        assertAgrees(WeatherValidators.US_POSTAL_CODE_PATTERN, WeatherValidators::isUsPostalCode, POSTAL_CODE_EDGE_CASES);
+    }
+
+    @Test
+    public void testIsName_EdgeCasesMatchReferencePattern() {
+        assertAgrees(WeatherValidators.NAME_PATTERN, WeatherValidators::isName, NAME_EDGE_CASES);
+    }
+
+    @Test
+    public void testIsUsPostalCode_RandomCorpusMatchesReferencePattern() {
+        // Arrange
+        List<String> corpus = randomCorpus(new Random(SEED), POSTAL_CODE_ALPHABET, 12);
+
+        // Act & Assert
+        long accepted = assertAgrees(WeatherValidators.US_POSTAL_CODE_PATTERN, WeatherValidators::isUsPostalCode, corpus);
+        assertTrue(accepted > 0, "corpus should contain valid postal codes");
+    }
+
+    @Test
+    public void testIsName_RandomCorpusMatchesReferencePattern() {
+        // Arrange
+        List<String> corpus = randomCorpus(new Random(SEED), NAME_ALPHABET, 10);
+
+        // Act & Assert
+        long accepted = assertAgrees(WeatherValidators.NAME_PATTERN, WeatherValidators::isName, corpus);
+        assertTrue(accepted > 0, "corpus should contain valid names");
+    }
+
+    @Test
+    public void testValidators_RejectNull() {
+        assertFalse(WeatherValidators.isUsPostalCode(null));
+        assertFalse(WeatherValidators.isName(null));
+    }
+
+    private static List<String> randomCorpus(Random random, String alphabet, int maxLength) {
+        List<String> corpus = new ArrayList<>(CORPUS_SIZE);
+        StringBuilder sb = new StringBuilder(maxLength);
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            sb.setLength(0);
+            int length = random.nextInt(maxLength + 1);
+            for (int j = 0; j < length; j++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            corpus.add(sb.toString());
+        }
+        return corpus;
+    }
+
+    private static long assertAgrees(Pattern reference, Predicate<String> validator, List<String> inputs) {
+        long accepted = 0;
+        for (String input : inputs) {
+            boolean expected = reference.matcher(input).matches();
+            assertEquals(expected, validator.test(input), () -> "disagreement on \"" + input + "\"");
+            if (expected) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+}
@@ -1,21 +1,29 @@
 package com.domain.weather.utility;
 
 import com.domain.weather.exception.WeatherException;
+import com.domain.weather.model.WeatherResponseDTO;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
 
 /**
  * Represents a test class for the `WeatherWebClient`.
- * Contains test methods to verify the functionality of the `WeatherWebClient`.
+ * Contains test methods to verify the functionality of the `WeatherWebClient`,
+ * including retries, the call deadline and hedging, against a local stub server.
  *
  * @author Puja Chaudhury
  * @version 1.0
@@ -23,50 +31,346 @@ import static org.mockito.Mockito.when;
  */
 public class WeatherWebClientTest {
 
+    private HttpServer server;
+
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+
+    private volatile int responseCode = 200;
+
+    private volatile String responseBody = "{\"location\":{\"name\":\"New York\",\"country\":\"USA\"},\"current\":{\"temperature\":22}}";
+
+    private volatile long responseDelayMs = 0;
+
+    private final AtomicInteger failingRequests = new AtomicInteger();
+
+    private final AtomicInteger slowRequests = new AtomicInteger();
+
+    private final AtomicInteger stalledBodies = new AtomicInteger();
+
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+
     @BeforeEach
-    void setUp() {
-        WeatherWebClient weatherWebClient = new WeatherWebClient();
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/current", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            try {
+                Thread.sleep(slowRequests.getAndDecrement() > 0 ? 3000 : responseDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(failingRequests.getAndDecrement() > 0 ? 503 : responseCode, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                if (stalledBodies.getAndDecrement() > 0) {
+                    // Headers and half the body, then nothing
+                    os.write(body, 0, body.length / 2);
+                    os.flush();
+                    Thread.sleep(10000);
+                }
+                os.write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private WeatherWebClient createClient(long readTimeoutMs) {
+        return new WeatherWebClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(), 1000, readTimeoutMs, 4);
+    }
+
+    private WeatherWebClient createClient(long deadlineMs, int maxAttempts, boolean hedge) {
+        return new WeatherWebClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(), 1000, 2000, 4,
+                deadlineMs, maxAttempts, 10, 50, hedge, 90, 100);
+    }
+
+    @Test
+    void testCallWeatherAPI_ValidPostalCode() {
+        // Arrange
+        WeatherWebClient weatherWebClient = createClient(2000);
+
+        // Act
+        WeatherResponseDTO result = weatherWebClient.callWeatherAPI("12345");
+
+        // Assert
+        assertEquals("New York", result.getLocation().getName());
+        assertEquals(22, result.getCurrent().getTemperature());
+    }
+
+    @Test
+    void testCallWeatherAPI_InvalidPostalCode() {
+        // Arrange
+        responseCode = 400;
+        WeatherWebClient weatherWebClient = createClient(2000);
+
+        // Act & Assert
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherWebClient.callWeatherAPI("invalid"));
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+    }
+
+    @Test
+    void testCallWeatherAPI_RetriesServerErrors() {
+        // Arrange
+        failingRequests.set(2);
+        WeatherWebClient weatherWebClient = createClient(5000, 3, false);
+
+        // Act
+        WeatherResponseDTO result = weatherWebClient.callWeatherAPI("12345");
+
+        // Assert
+        assertEquals("New York", result.getLocation().getName());
+        assertEquals(3, clientPorts.size());
+        assertEquals(2, weatherWebClient.getRetries());
+    }
+
+    @Test
+    void testCallWeatherAPI_DoesNotRetryClientErrors() {
+        // Arrange
+        responseCode = 400;
+        WeatherWebClient weatherWebClient = createClient(5000, 3, false);
+
+        // Act
+        assertThrows(WeatherException.class, () -> weatherWebClient.callWeatherAPI("12345"));
+
+        // Assert
+        assertEquals(1, clientPorts.size());
+        assertEquals(0, weatherWebClient.getRetries());
+    }
+
+    @Test
+    void testCallWeatherAPI_GivesUpAtTheDeadline() {
+        // Arrange
+        failingRequests.set(Integer.MAX_VALUE);
+        WeatherWebClient weatherWebClient = createClient(300, 100, false);
+
+        // Act
+        long start = System.nanoTime();
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherWebClient.callWeatherAPI("12345"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+        assertTrue(elapsedMs < 1000, "call should give up at its deadline, took " + elapsedMs + " ms");
+        assertTrue(clientPorts.size() > 1 && clientPorts.size() < 100);
+    }
+
+    @Test
+    void testCallWeatherAPI_StalledBodyTimesOutAndGivesBackItsConnection() {
+        // Arrange
+        stalledBodies.set(Integer.MAX_VALUE);
+        WeatherWebClient weatherWebClient = createClient(300);
+
+        // Act & Assert
+        for (int i = 0; i < 6; i++) {
+            long start = System.nanoTime();
+            WeatherException exception = assertThrows(WeatherException.class, () -> weatherWebClient.callWeatherAPI("12345"));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+            assertTrue(elapsedMs < 1000, "a stalled body should time out with the read timeout, took " + elapsedMs + " ms");
+        }
+        stalledBodies.set(0);
+        assertEquals("New York", weatherWebClient.callWeatherAPI("12345").getLocation().getName());
+    }
+
+    @Test
+    void testCallWeatherAPI_RetriesStalledBody() {
+        // Arrange
+        stalledBodies.set(1);
+        WeatherWebClient weatherWebClient = createClient(5000, 3, false);
+
+        // Act
+        long start = System.nanoTime();
+        WeatherResponseDTO result = weatherWebClient.callWeatherAPI("12345");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals("New York", result.getLocation().getName());
+        assertEquals(1, weatherWebClient.getRetries());
+        assertTrue(elapsedMs < 4000, "the stalled attempt should end at the read timeout, took " + elapsedMs + " ms");
     }
 
     @Test
-    void testCallWeatherAPI_ValidPostalCode() throws IOException, WeatherException {
+    void testCallWeatherAPI_RecordsAttemptsByStatusAndParseTime() {
         // Arrange
-        String postalCode = "12345";
-        String expectedResponse = "{\"key\":\"value\"}";
+        failingRequests.set(1);
+        WeatherWebClient weatherWebClient = createClient(5000, 3, false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        weatherWebClient.bindTo(registry);
 
-        // Mock the HTTP connection
-        HttpURLConnection mockConnection = Mockito.mock(HttpURLConnection.class);
-        when(mockConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
-        when(mockConnection.getInputStream()).thenReturn(new ByteArrayInputStream(expectedResponse.getBytes()));
+        // Act
+        weatherWebClient.callWeatherAPI("12345");
+
+        // Assert
+        assertEquals(1, registry.get("weather.upstream.requests").tag("status", "503").timer().count());
+        assertEquals(1, registry.get("weather.upstream.requests").tag("status", "200").timer().count());
+        assertEquals(0, registry.get("weather.upstream.requests").tag("status", "CLIENT_ERROR").timer().count());
+        assertEquals(1, registry.get("weather.upstream.parse").timer().count());
+    }
 
-        // Mock the URL connection
-        URL mockUrl = Mockito.mock(URL.class);
-        when(mockUrl.openConnection()).thenReturn(mockConnection);
+    @Test
+    void testCallWeatherAPI_HedgeWinsOverSlowAttempt() {
+        // Arrange
+        WeatherWebClient weatherWebClient = createClient(5000, 1, true);
+        for (int i = 0; i < 20; i++) {
+            weatherWebClient.callWeatherAPI("12345");
+        }
+        assertEquals(100.0, weatherWebClient.getHedgeDelayMillis(), "fast calls should put the hedge delay at its floor");
+        slowRequests.set(1);
 
         // Act
-        String result = WeatherWebClient.CallWeatherAPI(postalCode);
+        long start = System.nanoTime();
+        WeatherResponseDTO result = weatherWebClient.callWeatherAPI("12345");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
 
         // Assert
-        assertNotNull(result);
+        assertEquals("New York", result.getLocation().getName());
+        assertTrue(elapsedMs < 1500, "the hedge should answer before the slow attempt, took " + elapsedMs + " ms");
+        assertEquals(1, weatherWebClient.getHedgesFired());
+        assertEquals(1, weatherWebClient.getHedgesWon());
     }
 
     @Test
-    void testCallWeatherAPI_InvalidPostalCode() throws IOException, WeatherException {
+    void testCallWeatherAPI_HedgeSkippedWhenGateRefuses() {
         // Arrange
-        String postalCode = "invalid";
+        WeatherWebClient weatherWebClient = createClient(5000, 1, true);
+        for (int i = 0; i < 20; i++) {
+            weatherWebClient.callWeatherAPI("12345");
+        }
+        clientPorts.clear();
+        responseDelayMs = 300;
+        CountingGate gate = new CountingGate(false);
+
+        // Act
+        WeatherResponseDTO result = weatherWebClient.callWeatherAPI("12345", gate);
 
-        // Mock the HTTP connection
-        HttpURLConnection mockConnection = Mockito.mock(HttpURLConnection.class);
-        when(mockConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_BAD_REQUEST);
+        // Assert
+        assertEquals("New York", result.getLocation().getName());
+        assertEquals(1, gate.requests.get());
+        assertEquals(1, clientPorts.size());
+        assertEquals(0, weatherWebClient.getHedgesFired());
+    }
 
-        // Mock the URL connection
-        URL mockUrl = Mockito.mock(URL.class);
-        when(mockUrl.openConnection()).thenReturn(mockConnection);
+    @Test
+    void testCallWeatherAPI_RetryNotSentWhenGateRefuses() {
+        // Arrange
+        failingRequests.set(1);
+        WeatherWebClient weatherWebClient = createClient(5000, 3, false);
+        CountingGate gate = new CountingGate(false);
 
         // Act
-        String result = WeatherWebClient.CallWeatherAPI(postalCode);
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherWebClient.callWeatherAPI("12345", gate));
 
         // Assert
-        assertNotNull("", result);
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+        assertEquals(1, gate.requests.get());
+        assertEquals(1, gate.backoffs.get());
+        assertEquals(1, clientPorts.size());
+        assertEquals(0, weatherWebClient.getRetries());
+    }
+
+    @Test
+    void testCallWeatherAPI_EveryRetryPassesTheGate() {
+        // Arrange
+        failingRequests.set(2);
+        WeatherWebClient weatherWebClient = createClient(5000, 3, false);
+        CountingGate gate = new CountingGate(true);
+
+        // Act
+        WeatherResponseDTO result = weatherWebClient.callWeatherAPI("12345", gate);
+
+        // Assert
+        assertEquals("New York", result.getLocation().getName());
+        assertEquals(2, gate.requests.get());
+        assertEquals(2, gate.backoffs.get());
+        assertEquals(3, clientPorts.size());
+        assertEquals(2, weatherWebClient.getRetries());
+    }
+
+    @Test
+    void testCallWeatherAPI_NoHedgeWithoutLatencyHistory() {
+        // Arrange
+        responseDelayMs = 300;
+        WeatherWebClient weatherWebClient = createClient(5000, 1, true);
+
+        // Act
+        weatherWebClient.callWeatherAPI("12345");
+
+        // Assert
+        assertEquals(1, clientPorts.size());
+        assertEquals(0, weatherWebClient.getHedgesFired());
+    }
+
+    @Test
+    void testCallWeatherAPI_ErrorBody() {
+        // Arrange
+        responseBody = "{\"success\":false,\"error\":{\"code\":101,\"type\":\"invalid_access_key\"}}";
+        WeatherWebClient weatherWebClient = createClient(2000);
+
+        // Act & Assert
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherWebClient.callWeatherAPI("12345"));
+        assertEquals(WeatherException.INVALID_ACCESS_KEY, exception.getCode());
+    }
+
+    @Test
+    void testCallWeatherAPI_ReusesConnection() {
+        // Arrange
+        WeatherWebClient weatherWebClient = createClient(2000);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            weatherWebClient.callWeatherAPI("12345");
+        }
+
+        // Assert
+        assertEquals(5, clientPorts.size());
+        assertEquals(1, clientPorts.stream().distinct().count());
+    }
+
+    @Test
+    void testCallWeatherAPI_ReadTimeout() {
+        // Arrange
+        responseDelayMs = 2000;
+        WeatherWebClient weatherWebClient = createClient(200);
+
+        // Act
+        long start = System.nanoTime();
+        WeatherException exception = assertThrows(WeatherException.class, () -> weatherWebClient.callWeatherAPI("12345"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(WeatherException.INTERNAL_SERVER_ERROR, exception.getCode());
+        assertTrue(elapsedMs < 1500, "call should give up after the read timeout, took " + elapsedMs + " ms");
+    }
+
+    private static final class CountingGate implements WeatherWebClient.AttemptGate {
+
+        private final boolean open;
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private final AtomicInteger backoffs = new AtomicInteger();
+
+        private CountingGate(boolean open) {
+            this.open = open;
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            requests.incrementAndGet();
+            return open;
+        }
+
+        @Override
+        public void backedOff(long nanos) {
+            backoffs.incrementAndGet();
+        }
     }
-}
\ No newline at end of file
+}